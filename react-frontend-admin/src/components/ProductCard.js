@@ -2,6 +2,8 @@
 import React from 'react';
 import { useNavigate } from 'react-router-dom';
 
+const API_ORIGIN = 'http://localhost:8080';
+
 const ProductCard = ({ product, onDelete }) => {
   const navigate = useNavigate();
   const totalValue = product.price * product.quantity;
@@ -23,6 +25,19 @@ const ProductCard = ({ product, onDelete }) => {
         </div>
       );
     }
+    // Product lists only carry a URL to the binary image endpoint; cards need the 256px thumbnail
+    if (product.imageUrl) {
+      return (
+        <div className="product-image-container">
+          <img 
+            src={`${API_ORIGIN}${product.imageUrl}${product.imageUrl.includes('?') ? '&' : '?'}size=256`} 
+            alt={product.name}
+            className="product-image"
+            loading="lazy"
+          />
+        </div>
+      );
+    }
     // Placeholder if no image
     return (
       <div className="product-image-placeholder">
@@ -0,0 +1,42 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.dto.response.CacheStatsResponse;
+import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class AdminCacheController {
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
+    @GetMapping("/products")
+    public ResponseEntity<CacheStatsResponse> getProductCacheStats() {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        // Apply pending evictions so the counters are current
+        productCache.cleanUp();
+        CacheStats stats = productCache.stats();
+        CacheStatsResponse response = new CacheStatsResponse(
+                productCache.isEnabled(),
+                productCache.size(),
+                productCache.weightedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadCount(),
+                stats.evictionCount());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
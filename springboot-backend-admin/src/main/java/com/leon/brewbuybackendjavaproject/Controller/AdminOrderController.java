@@ -0,0 +1,95 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Service.BulkOrderStatusService;
+import com.leon.brewbuybackendjavaproject.Service.OrderService;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.response.BulkOrderStatusResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
+import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+public class AdminOrderController {
+    
+    @Autowired
+    private BulkOrderStatusService bulkOrderStatusService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
+    @Value("${brewbuy.orders.page.default-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${brewbuy.orders.page.max-size:100}")
+    private int maxPageSize;
+    
+    // Orders of all users, newest first, paged like the order history: a plain list, with the
+    // continuation token in X-Next-Cursor. Only order columns come back; items are per order
+    @GetMapping
+    public ResponseEntity<?> searchOrders(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) Long productId) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        AdminOrderSearchQuery query = new AdminOrderSearchQuery();
+        query.setStatus(status);
+        query.setUserId(userId);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setMinAmount(minAmount);
+        query.setMaxAmount(maxAmount);
+        query.setProductId(productId);
+        query.setLimit(Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize)));
+        
+        CursorPage<OrderSummaryResponse> page;
+        try {
+            page = orderService.searchOrders(query, cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    @PostMapping("/status")
+    public ResponseEntity<?> updateStatuses(@RequestBody BulkOrderStatusRequest request) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        // Orders that cannot make the move are reported per id rather than failing the request
+        try {
+            BulkOrderStatusResponse response = bulkOrderStatusService.apply(request);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
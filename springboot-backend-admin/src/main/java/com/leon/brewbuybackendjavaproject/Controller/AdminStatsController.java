@@ -0,0 +1,80 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSalesResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.SalesStatsResponse;
+import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import com.leon.brewbuybackendjavaproject.stats.SalesStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+public class AdminStatsController {
+    
+    @Autowired
+    private SalesStatsService salesStatsService;
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
+    // Dates are inclusive; without them the last 30 days
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(29);
+        try {
+            SalesStatsResponse response = salesStatsService.getSales(first, last);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/products")
+    public ResponseEntity<?> getTopProducts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(29);
+        try {
+            List<ProductSalesResponse> response = salesStatsService.getTopProducts(first, last, limit);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Rebuilds the rollups of a range from the orders, as the nightly job does for the last days
+    @PostMapping("/reconcile")
+    public ResponseEntity<?> reconcile(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("from must not be after to");
+        }
+        
+        salesRollupService.reconcile(from, to);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
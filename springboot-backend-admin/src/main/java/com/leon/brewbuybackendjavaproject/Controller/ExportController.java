@@ -0,0 +1,59 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.Service.ExportService;
+import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class ExportController {
+    
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String format) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        if (!exportService.isSupportedFormat(format)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return stream("products", format, out -> exportService.writeProducts(format, out));
+    }
+    
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "csv") String format) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        if (!exportService.isSupportedFormat(format)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return stream("orders", format, out -> exportService.writeOrders(format, out));
+    }
+    
+    // The body is written on an async thread after the headers go out, so the export never sits in memory
+    private ResponseEntity<StreamingResponseBody> stream(String name, String format, StreamingResponseBody body) {
+        boolean csv = ExportService.FORMAT_CSV.equals(format);
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + (csv ? ".csv" : ".ndjson"))
+                        .build().toString())
+                .body(body);
+    }
+}
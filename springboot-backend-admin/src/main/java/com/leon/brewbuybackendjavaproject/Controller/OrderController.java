@@ -2,19 +2,38 @@ package com.leon.brewbuybackendjavaproject.Controller;
 
 import com.leon.brewbuybackendjavaproject.Model.Order;
 import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
 import com.leon.brewbuybackendjavaproject.Model.User;
+import com.leon.brewbuybackendjavaproject.Service.BatchOrderService;
+import com.leon.brewbuybackendjavaproject.Service.OrderIdempotencyService;
+import com.leon.brewbuybackendjavaproject.Service.OrderPlacement;
 import com.leon.brewbuybackendjavaproject.Service.OrderService;
 import com.leon.brewbuybackendjavaproject.Service.UserService;
+import com.leon.brewbuybackendjavaproject.dto.request.BatchOrderRequest;
 import com.leon.brewbuybackendjavaproject.dto.request.CreateOrderRequest;
+import com.leon.brewbuybackendjavaproject.dto.request.OrderHistoryQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.BatchOrderResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
 import com.leon.brewbuybackendjavaproject.dto.response.OrderResponse;
+import com.leon.brewbuybackendjavaproject.exception.IdempotencyKeyReuseException;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import com.leon.brewbuybackendjavaproject.exception.InvalidOrderStatusException;
+import com.leon.brewbuybackendjavaproject.intake.OrderIntakeService;
+import com.leon.brewbuybackendjavaproject.intake.OrderIntakeTicket;
 import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,14 +43,31 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+    
+    @Autowired
+    private BatchOrderService batchOrderService;
+    
+    // Only present with brewbuy.orders.intake.mode=async
+    @Autowired(required = false)
+    private OrderIntakeService orderIntakeService;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private SecurityUtil securityUtil;
     
+    @Value("${brewbuy.orders.page.default-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${brewbuy.orders.page.max-size:100}")
+    private int maxPageSize;
+    
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         // Get the currently authenticated user
         String username = securityUtil.getCurrentUsername();
         if (username == null) {
@@ -47,18 +83,84 @@ public class OrderController {
         Long userId = userOptional.get().getId();
         
         // Convert request items to OrderItems
-        List<OrderItem> orderItems = request.getItems().stream()
-            .map(item -> new OrderItem(null, item.getProductId(), item.getQuantity(), item.getPrice()))
-            .collect(Collectors.toList());
+        List<OrderItem> orderItems = toOrderItems(request);
+        
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            return ResponseEntity.badRequest().body("Idempotency-Key must be 1 to 255 characters");
+        }
         
-        // Create order
-        Order order = orderService.createOrder(userId, orderItems);
+        // In async intake mode the order is queued and placed later; keyed requests still go through the idempotent path
+        if (orderIntakeService != null && idempotencyKey == null) {
+            try {
+                OrderIntakeTicket ticket = orderIntakeService.submit(userId, orderItems);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/intake/" + ticket.getHandle()))
+                        .body(ticket);
+            } catch (InsufficientStockException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (RejectedExecutionException e) {
+                return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+        
+        // Create order, taking the ordered quantities off stock; with a key, a retry gets the first order back
+        OrderResponse response;
+        try {
+            response = idempotencyKey != null
+                ? orderIdempotencyService.createOrder(userId, idempotencyKey, orderItems)
+                : new OrderResponse(orderService.createOrder(userId, orderItems));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IdempotencyKeyReuseException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
         
-        // Convert to response
-        OrderResponse response = new OrderResponse(order);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
     
+    // Many orders of the caller in one request, e.g. a POS terminal syncing offline orders; each gets its own result
+    @PostMapping("/batch")
+    public ResponseEntity<?> createOrders(@RequestBody BatchOrderRequest request) {
+        // Get the currently authenticated user
+        String username = securityUtil.getCurrentUsername();
+        if (username == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        
+        // Get user by username, once for the whole batch
+        Optional<User> userOptional = userService.getUserByUsername(username);
+        if (userOptional.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        
+        if (request.getOrders() == null) {
+            return ResponseEntity.badRequest().body("Batch has no orders");
+        }
+        List<List<OrderItem>> carts = request.getOrders().stream()
+            .map(this::toOrderItems)
+            .collect(Collectors.toList());
+        
+        try {
+            List<OrderPlacement> placements = batchOrderService.createOrders(userOptional.get().getId(), carts);
+            return ResponseEntity.ok(new BatchOrderResponse(placements));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    private List<OrderItem> toOrderItems(CreateOrderRequest request) {
+        if (request == null || request.getItems() == null) {
+            return new ArrayList<>();
+        }
+        return request.getItems().stream()
+            .map(item -> new OrderItem(null, item.getProductId(), item.getQuantity(), item.getPrice()))
+            .collect(Collectors.toList());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
         // Get the currently authenticated user
@@ -85,8 +187,36 @@ public class OrderController {
         }
     }
     
+    // Where an order sent through async intake stands; CREATED carries the order id
+    @GetMapping("/intake/{handle}")
+    public ResponseEntity<OrderIntakeTicket> getIntakeTicket(@PathVariable String handle) {
+        // Get the currently authenticated user
+        String username = securityUtil.getCurrentUsername();
+        if (username == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        
+        // Get user by username
+        Optional<User> userOptional = userService.getUserByUsername(username);
+        if (userOptional.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        
+        if (orderIntakeService == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return orderIntakeService.getTicket(handle, userOptional.get().getId())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
     @GetMapping("/user/me")
-    public ResponseEntity<List<OrderResponse>> getMyOrders() {
+    public ResponseEntity<List<OrderResponse>> getMyOrders(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         // Get the currently authenticated user
         String username = securityUtil.getCurrentUsername();
         if (username == null) {
@@ -101,15 +231,42 @@ public class OrderController {
         
         Long userId = userOptional.get().getId();
         
-        List<Order> orders = orderService.getOrdersByUserId(userId);
+        // Newest first, one page at a time; the body stays a plain list and the
+        // continuation token for the next page comes back in X-Next-Cursor.
+        // Clients that send neither limit nor cursor predate paging and get the whole history
+        boolean unpaged = limit == null && (cursor == null || cursor.isEmpty());
+        int pageSize = unpaged ? maxPageSize : Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+        OrderHistoryQuery query = new OrderHistoryQuery();
+        query.setUserId(userId);
+        query.setStatus(status);
+        query.setFrom(from);
+        query.setTo(to);
+        
+        List<Order> orders = new ArrayList<>();
+        String nextCursor = cursor;
+        try {
+            do {
+                query.setLimit(pageSize);
+                CursorPage<Order> page = orderService.getOrderHistory(query, nextCursor);
+                orders.addAll(page.getItems());
+                nextCursor = page.getNextCursor();
+            } while (unpaged && nextCursor != null);
+        } catch (IllegalArgumentException e) {
+            // Malformed cursor
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         List<OrderResponse> responses = orders.stream()
             .map(OrderResponse::new)
             .collect(Collectors.toList());
-        return new ResponseEntity<>(responses, HttpStatus.OK);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header("X-Next-Cursor", nextCursor);
+        }
+        return response.body(responses);
     }
     
     @PutMapping("/{id}/status")
-    public ResponseEntity<OrderResponse> updateOrderStatus(@PathVariable Long id, @RequestParam String status) {
+    public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
         // Get the currently authenticated user
         String username = securityUtil.getCurrentUsername();
         if (username == null) {
@@ -129,6 +286,8 @@ public class OrderController {
             Order updatedOrder = orderService.updateOrderStatus(id, userId, status);
             OrderResponse response = new OrderResponse(updatedOrder);
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (InvalidOrderStatusException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
@@ -1,16 +1,59 @@
 package com.leon.brewbuybackendjavaproject.Controller;
 
 import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Service.CatalogSnapshot;
+import com.leon.brewbuybackendjavaproject.Service.CatalogSnapshotService;
+import com.leon.brewbuybackendjavaproject.Service.ProductImportJob;
+import com.leon.brewbuybackendjavaproject.Service.ProductImportService;
 import com.leon.brewbuybackendjavaproject.Service.ProductService;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductPageQuery;
 import com.leon.brewbuybackendjavaproject.dto.request.ProductRequest;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
 import com.leon.brewbuybackendjavaproject.dto.response.ProductResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSuggestion;
+import com.leon.brewbuybackendjavaproject.exception.ImageTooLargeException;
+import com.leon.brewbuybackendjavaproject.exception.ImportTooLargeException;
+import com.leon.brewbuybackendjavaproject.exception.ProductNotFoundException;
+import com.leon.brewbuybackendjavaproject.exception.UnsupportedImageException;
+import com.leon.brewbuybackendjavaproject.image.ImageFormat;
+import com.leon.brewbuybackendjavaproject.image.ImageMigrationJob;
+import com.leon.brewbuybackendjavaproject.image.ImageStore;
+import com.leon.brewbuybackendjavaproject.image.ImageUploadProcessor;
+import com.leon.brewbuybackendjavaproject.image.Rendition;
+import com.leon.brewbuybackendjavaproject.image.StagedImage;
+import com.leon.brewbuybackendjavaproject.image.ThumbnailService;
+import com.leon.brewbuybackendjavaproject.search.ProductSearchService;
+import com.leon.brewbuybackendjavaproject.search.ProductSuggestService;
+import com.leon.brewbuybackendjavaproject.security.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,19 +63,213 @@ public class ProductController {
 
     @Autowired
     private ProductService productService;
+    
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductSearchService productSearchService;
+    
+    @Autowired
+    private ProductSuggestService productSuggestService;
+    
+    @Autowired
+    private ImageUploadProcessor imageUploadProcessor;
+    
+    @Autowired
+    private ImageStore imageStore;
+    
+    @Autowired
+    private ImageMigrationJob imageMigrationJob;
+    
+    @Autowired
+    private ThumbnailService thumbnailService;
+    
+    @Autowired
+    private SecurityUtil securityUtil;
+    
+    // "inline" embeds imageBase64 in product responses, "url" only sends imageUrl and imageHash
+    @Value("${brewbuy.products.image-mode:inline}")
+    private String imageMode;
+    
+    @Value("${brewbuy.products.page.default-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${brewbuy.products.page.max-size:100}")
+    private int maxPageSize;
+    
+    @Value("${brewbuy.products.suggest.default-limit:10}")
+    private int defaultSuggestLimit;
+    
+    @Value("${brewbuy.products.suggest.max-limit:50}")
+    private int maxSuggestLimit;
+    
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("id", "name", "price");
+    
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     @GetMapping
-    public List<ProductResponse> getAll() {
-        return productService.getAllProducts().stream()
+    public ResponseEntity<byte[]> getAll(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         WebRequest webRequest) {
+        // The list is serialized once per catalog version; images are fetched per product from /{id}/image
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (webRequest.checkNotModified(snapshot.getEtag())) {
+            return null;
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzippedJson());
+        }
+        return response.body(snapshot.getJson());
+    }
+
+    // Full-text search over name and description, best match first
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> search(@RequestParam String q,
+                                                        @RequestParam(required = false) Integer limit) {
+        if (!productSearchService.isReady()) {
+            // Index still being built after startup
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        int size = Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize));
+        List<ProductResponse> results = productSearchService.search(q, size).stream()
                 .map(ProductResponse::new)
                 .collect(Collectors.toList());
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+    
+    // Type-ahead: products whose name or any word in it starts with the prefix, best stocked first
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggest(@RequestParam String prefix,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (!productSuggestService.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        int size = Math.max(1, Math.min(limit != null ? limit : defaultSuggestLimit, maxSuggestLimit));
+        return new ResponseEntity<>(productSuggestService.suggest(prefix, size), HttpStatus.OK);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ProductResponse>> getPage(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer minQuantity,
+            @RequestParam(required = false) String namePrefix) {
+        if (!PAGE_SORT_KEYS.contains(sort)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        ProductPageQuery query = new ProductPageQuery();
+        query.setSort(sort);
+        query.setDescending("desc".equalsIgnoreCase(direction));
+        query.setLimit(Math.max(1, Math.min(limit != null ? limit : defaultPageSize, maxPageSize)));
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setMinQuantity(minQuantity);
+        query.setNamePrefix(namePrefix);
+        
+        try {
+            CursorPage<ProductSummary> page = productService.getProductPage(query, cursor);
+            List<ProductResponse> items = page.getItems().stream()
+                    .map(ProductResponse::new)
+                    .collect(Collectors.toList());
+            return new ResponseEntity<>(new CursorPage<>(items, page.getNextCursor()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            // Malformed or mismatched cursor
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/{id}")
     public ProductResponse getById(@PathVariable Long id) {
         Product product = productService.getProductById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        return new ProductResponse(product);
+        return toResponse(product);
+    }
+
+    @GetMapping("/{id}/image")
+    public ResponseEntity<Resource> getImage(@PathVariable Long id,
+                                             @RequestParam(name = "v", required = false) String version,
+                                             @RequestParam(required = false) Integer size,
+                                             HttpServletRequest request,
+                                             WebRequest webRequest) throws IOException {
+        Product product = productService.getProductById(id).orElse(null);
+        if (product == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (product.getImageHash() == null && imageMigrationJob.migrateProduct(id)) {
+            // A legacy row with its image still in image_data: move it now rather than wait for the job
+            product = productService.getProductById(id).orElse(null);
+        }
+        if (product == null || product.getImageHash() == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        String hash = product.getImageHash();
+        if (size != null && !thumbnailService.isSupportedSize(size)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        Optional<Resource> image = imageStore.open(hash);
+        if (image.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        
+        // Decide 304 before rendering anything or choosing between sendfile and a regular body
+        String etag = size != null ? hash + "-" + size : hash;
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        Resource resource = image.get();
+        MediaType mediaType = imageMediaType(product.getImageType());
+        if (size != null) {
+            // Falls back to the original when it is already small or ImageIO cannot decode it
+            Optional<Rendition> rendition = thumbnailService.get(hash, size);
+            if (rendition.isPresent()) {
+                resource = new FileSystemResource(rendition.get().getFile());
+                mediaType = MediaType.parseMediaType(rendition.get().getMimeType());
+            }
+        }
+        
+        // A URL carrying the current hash never changes content, anything else must revalidate
+        CacheControl cacheControl = hash.equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().build().toString())
+                .header("X-Content-Type-Options", "nosniff");
+        
+        if (request.getHeader(HttpHeaders.RANGE) == null && resource.isFile()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Let Tomcat send the file straight from the page cache to the socket (zero-copy)
+            long length = resource.contentLength();
+            request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return response.contentLength(length).build();
+        }
+        
+        // Spring answers Range with 206 for Resource bodies
+        return response.body(resource);
     }
 
     @PostMapping
@@ -44,54 +281,144 @@ public class ProductController {
         product.setPrice(productRequest.getPrice());
         product.setQuantity(productRequest.getQuantity());
         
-        // Handle image data if provided
-        if (productRequest.getImageBase64() != null && !productRequest.getImageBase64().isEmpty()) {
-            try {
-                byte[] imageData = Base64.getDecoder().decode(productRequest.getImageBase64());
-                product.setImageData(imageData);
-                product.setImageType(productRequest.getImageType());
-            } catch (Exception e) {
-                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-            }
+        // Handle image data if provided; a rejected image creates nothing
+        try {
+            applyBase64Image(product, productRequest);
+        } catch (ImageTooLargeException e) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (UnsupportedImageException e) {
+            return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         
         // Save the product
         Product savedProduct = productService.createProduct(product);
-        ProductResponse response = new ProductResponse(savedProduct);
+        ProductResponse response = toResponse(savedProduct);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductResponse> createWithImage(@RequestPart("product") ProductRequest productRequest,
+                                                           @RequestPart(value = "file", required = false) MultipartFile file) {
+        Product product = new Product();
+        product.setName(productRequest.getName());
+        product.setDescription(productRequest.getDescription());
+        product.setPrice(productRequest.getPrice());
+        product.setQuantity(productRequest.getQuantity());
+        
+        if (file == null || file.isEmpty()) {
+            return new ResponseEntity<>(toResponse(productService.createProduct(product)), HttpStatus.CREATED);
+        }
+        
+        // The image is checked and stored before the product exists, so a rejected upload creates nothing
+        try (InputStream in = file.getInputStream();
+             StagedImage image = imageUploadProcessor.stage(in)) {
+            String hash = imageStore.put(image);
+            product.setImageHash(hash);
+            product.setImageType(image.getMimeType());
+            product.setImageSize(image.getSize());
+            Product savedProduct = productService.createProduct(product);
+            thumbnailService.pregenerate(hash);
+            return new ResponseEntity<>(toResponse(savedProduct), HttpStatus.CREATED);
+        } catch (ImageTooLargeException e) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (UnsupportedImageException e) {
+            return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductResponse> uploadImageMultipart(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        // Multipart parts are spooled to disk by the servlet container, so this reads from a file
+        try (InputStream in = file.getInputStream()) {
+            return uploadImage(id, in, HttpStatus.OK);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PutMapping(value = "/{id}/image", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<ProductResponse> uploadImageRaw(@PathVariable Long id, HttpServletRequest request) {
+        // Read the raw request body directly instead of letting a message converter buffer it
+        try (InputStream in = request.getInputStream()) {
+            return uploadImage(id, in, HttpStatus.OK);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("/batch")
-    public List<ProductResponse> createMultiple(@RequestBody List<ProductRequest> productRequests) {
-        List<Product> products = productRequests.stream().map(request -> {
+    public ResponseEntity<List<ProductResponse>> createMultiple(@RequestBody List<ProductRequest> productRequests) {
+        List<Product> products = new ArrayList<>(productRequests.size());
+        for (ProductRequest request : productRequests) {
             Product product = new Product();
             product.setName(request.getName());
             product.setDescription(request.getDescription());
             product.setPrice(request.getPrice());
             product.setQuantity(request.getQuantity());
             
-            // Handle image data if provided
-            if (request.getImageBase64() != null && !request.getImageBase64().isEmpty()) {
-                try {
-                    byte[] imageData = Base64.getDecoder().decode(request.getImageBase64());
-                    product.setImageData(imageData);
-                    product.setImageType(request.getImageType());
-                } catch (Exception e) {
-                    // If image processing fails, create product without image
-                }
+            // Handle image data if provided; one rejected image rejects the whole batch
+            try {
+                applyBase64Image(product, request);
+            } catch (ImageTooLargeException e) {
+                return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+            } catch (UnsupportedImageException e) {
+                return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            } catch (IOException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
             }
-            
-            return product;
-        }).collect(Collectors.toList());
+            products.add(product);
+        }
         
         List<Product> savedProducts = productService.createProducts(products);
-        return savedProducts.stream()
-                .map(ProductResponse::new)
-                .collect(Collectors.toList());
+        return new ResponseEntity<>(savedProducts.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList()), HttpStatus.OK);
     }
 
+    // Streams an NDJSON or CSV file of products into the catalog in the background; poll the returned job for progress
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ProductImportJob> importProducts(@RequestParam(required = false) String format,
+                                                           HttpServletRequest request) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        if (format == null) {
+            format = request.getContentType() != null && request.getContentType().startsWith("text/csv")
+                    ? ProductImportService.FORMAT_CSV : ProductImportService.FORMAT_NDJSON;
+        }
+        if (!productImportService.isSupportedFormat(format)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try (InputStream in = request.getInputStream()) {
+            ProductImportJob job = productImportService.submit(format, in);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/products/import/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ImportTooLargeException e) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportJob> getImportJob(@PathVariable String jobId) {
+        if (!securityUtil.isCurrentUserAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return productImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
     @PutMapping("/{id}")
-    public ProductResponse update(@PathVariable Long id, @RequestBody ProductRequest productRequest) {
+    public ResponseEntity<ProductResponse> update(@PathVariable Long id, @RequestBody ProductRequest productRequest) {
         Product product = productService.getProductById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
@@ -100,24 +427,76 @@ public class ProductController {
         product.setPrice(productRequest.getPrice());
         product.setQuantity(productRequest.getQuantity());
         
-        // Handle image data if provided
-        if (productRequest.getImageBase64() != null && !productRequest.getImageBase64().isEmpty()) {
-            try {
-                byte[] imageData = Base64.getDecoder().decode(productRequest.getImageBase64());
-                product.setImageData(imageData);
-                product.setImageType(productRequest.getImageType());
-            } catch (Exception e) {
-                // If image processing fails, continue with other updates
-            }
+        // Handle image data if provided; a rejected image leaves the product unchanged
+        try {
+            applyBase64Image(product, productRequest);
+        } catch (ImageTooLargeException e) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (UnsupportedImageException e) {
+            return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         
         Product updatedProduct = productService.updateProduct(id, product);
-        return new ProductResponse(updatedProduct);
+        return new ResponseEntity<>(toResponse(updatedProduct), HttpStatus.OK);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    private ResponseEntity<ProductResponse> uploadImage(Long id, InputStream in, HttpStatus successStatus) throws IOException {
+        try (StagedImage image = imageUploadProcessor.stage(in)) {
+            ProductSummary summary = productService.updateProductImage(id, image);
+            return new ResponseEntity<>(new ProductResponse(summary), successStatus);
+        } catch (ImageTooLargeException e) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (UnsupportedImageException e) {
+            return new ResponseEntity<>(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        } catch (ProductNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // Checks the request's Base64 image like an upload and stores it. The type and size come
+    // from the bytes, never from the request; malformed Base64 is an IOException from the decoder
+    private void applyBase64Image(Product product, ProductRequest request) throws IOException {
+        if (request.getImageBase64() == null || request.getImageBase64().isEmpty()) {
+            return;
+        }
+        InputStream image = Base64.getMimeDecoder().wrap(
+                new ByteArrayInputStream(request.getImageBase64().getBytes(StandardCharsets.US_ASCII)));
+        try (StagedImage staged = imageUploadProcessor.stage(image)) {
+            String hash = imageStore.put(staged);
+            product.setImageHash(hash);
+            product.setImageType(staged.getMimeType());
+            product.setImageSize(staged.getSize());
+            thumbnailService.pregenerate(hash);
+        }
+    }
+
+    private ProductResponse toResponse(Product product) {
+        byte[] inlineImage = null;
+        if (!"url".equalsIgnoreCase(imageMode) && product.getImageHash() != null) {
+            try {
+                inlineImage = imageStore.read(product.getImageHash()).orElse(null);
+            } catch (IOException e) {
+                // Fall back to the image URL
+            }
+        }
+        return new ProductResponse(product, inlineImage);
+    }
+
+    // Legacy rows still carry whatever type the client sent, so only the formats we sniff are served as such
+    private MediaType imageMediaType(String imageType) {
+        for (ImageFormat format : ImageFormat.values()) {
+            if (format.getMimeType().equalsIgnoreCase(imageType)) {
+                return MediaType.parseMediaType(format.getMimeType());
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
 }
 
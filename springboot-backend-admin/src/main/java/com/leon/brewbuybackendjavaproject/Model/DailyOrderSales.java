@@ -0,0 +1,70 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Rollup: orders created on a day that are now in a status, and their total. Maintained by
+// SalesRollupService; the unique key is what its upserts add to.
+@Entity
+@Table(name = "order_sales_daily",
+    uniqueConstraints = @UniqueConstraint(name = "uk_order_sales_daily", columnNames = {"sales_date", "status"}))
+public class DailyOrderSales {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderStatus status;
+    
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+    
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+    
+    // Constructors
+    public DailyOrderSales() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+    
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
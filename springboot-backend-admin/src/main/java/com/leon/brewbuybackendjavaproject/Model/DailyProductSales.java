@@ -0,0 +1,69 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Rollup: units of a product and their revenue in orders created on a day, cancelled orders
+// left out. Maintained by SalesRollupService; the unique key is what its upserts add to.
+@Entity
+@Table(name = "product_sales_daily",
+    uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_daily", columnNames = {"sales_date", "product_id"}))
+public class DailyProductSales {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "units", nullable = false)
+    private long units;
+    
+    @Column(name = "revenue", nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+    
+    // Constructors
+    public DailyProductSales() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+    
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public long getUnits() {
+        return units;
+    }
+    
+    public void setUnits(long units) {
+        this.units = units;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,38 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per inventory journal segment whose deltas reached the products table,
+// written in the same transaction so a segment is never applied twice
+@Entity
+@Table(name = "inventory_flush_log")
+public class InventoryFlushLog {
+    
+    @Id
+    @Column(name = "segment")
+    private Long segment;
+    
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+    
+    // Constructors
+    public InventoryFlushLog() {}
+    
+    // Getters and Setters
+    public Long getSegment() {
+        return segment;
+    }
+    
+    public void setSegment(Long segment) {
+        this.segment = segment;
+    }
+    
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+    
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -7,11 +7,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Order history seeks on (created_at, id) within one user, newest first
+    @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_user_status", columnList = "user_id, status"),
+    // Bulk status changes select by status in id order
+    @Index(name = "idx_orders_status_id", columnList = "status, id"),
+    // Rebuilding the sales rollups scans a range of days; the admin search seeks on it unfiltered or by date
+    @Index(name = "idx_orders_created_id", columnList = "created_at, id"),
+    // Admin search by status, newest first
+    @Index(name = "idx_orders_status_created_id", columnList = "status, created_at, id"),
+    // Admin search by amount range; the matching orders are sorted after the range scan
+    @Index(name = "idx_orders_total_amount", columnList = "total_amount")
+})
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -20,8 +33,11 @@ public class Order {
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
     
-    @Column(name = "status", nullable = false)
-    private String status; // e.g., "PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"
+    // Stored by name in a VARCHAR rather than a MySQL ENUM, so adding a status needs no ALTER.
+    // The converter also reads the differently cased values of rows from before the enum
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderStatus status;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -29,13 +45,18 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Guards saves of the whole entity; status changes bump it in their conditional UPDATE
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+    
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
     
     // Constructors
     public Order() {}
     
-    public Order(Long userId, BigDecimal totalAmount, String status) {
+    public Order(Long userId, BigDecimal totalAmount, OrderStatus status) {
         this.userId = userId;
         this.totalAmount = totalAmount;
         this.status = status;
@@ -79,11 +100,11 @@ public class Order {
         this.totalAmount = totalAmount;
     }
     
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
     
@@ -103,6 +124,14 @@ public class Order {
         this.updatedAt = updatedAt;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
@@ -0,0 +1,96 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// The outcome of one order taken through async intake, written in the same transaction
+// as the order itself. A journaled order with a row here is never placed again on replay.
+@Entity
+@Table(name = "order_intakes",
+    indexes = @Index(name = "idx_order_intakes_completed", columnList = "completed_at"))
+public class OrderIntake {
+    
+    @Id
+    @Column(name = "handle", length = 36)
+    private String handle;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderIntakeStatus status;
+    
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    // Why the order was rejected
+    @Column(name = "message")
+    private String message;
+    
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+    
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public OrderIntake() {}
+    
+    // Getters and Setters
+    public String getHandle() {
+        return handle;
+    }
+    
+    public void setHandle(String handle) {
+        this.handle = handle;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public OrderIntakeStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderIntakeStatus status) {
+        this.status = status;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
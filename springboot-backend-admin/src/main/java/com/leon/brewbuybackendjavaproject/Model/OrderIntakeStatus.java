@@ -0,0 +1,8 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+// Where an order sent through async intake stands: waiting for the writer, or its final outcome
+public enum OrderIntakeStatus {
+    QUEUED,
+    CREATED,
+    REJECTED
+}
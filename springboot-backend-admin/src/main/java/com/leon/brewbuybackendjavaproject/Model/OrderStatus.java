@@ -0,0 +1,48 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Order lifecycle: PENDING -> CONFIRMED -> SHIPPED -> DELIVERED, and CANCELLED from anywhere before shipping
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+    
+    // Ignores case and surrounding spaces, as legacy rows were written as free text
+    public static OrderStatus fromStored(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown order status '" + value + "'", e);
+        }
+    }
+    
+    // The statuses an order may be in to move to this one
+    public Set<OrderStatus> allowedFrom() {
+        switch (this) {
+            case CONFIRMED:
+                return EnumSet.of(PENDING);
+            case SHIPPED:
+                return EnumSet.of(CONFIRMED);
+            case DELIVERED:
+                return EnumSet.of(SHIPPED);
+            case CANCELLED:
+                return EnumSet.of(PENDING, CONFIRMED);
+            default:
+                return EnumSet.noneOf(OrderStatus.class);
+        }
+    }
+    
+    // Orders still holding their reserved stock; cancelling or deleting one gives it back
+    public boolean holdsStock() {
+        return this == PENDING || this == CONFIRMED;
+    }
+    
+    public boolean canMoveTo(OrderStatus next) {
+        return next.allowedFrom().contains(this);
+    }
+}
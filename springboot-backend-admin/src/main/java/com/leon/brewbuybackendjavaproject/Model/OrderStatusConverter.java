@@ -0,0 +1,20 @@
+package com.leon.brewbuybackendjavaproject.Model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Writes the status by name. Reads also take the free-text values the column held before it
+// was an enum, such as "pending" or "Shipped ", so those rows load without a data migration
+@Converter
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, String> {
+    
+    @Override
+    public String convertToDatabaseColumn(OrderStatus status) {
+        return status != null ? status.name() : null;
+    }
+    
+    @Override
+    public OrderStatus convertToEntityAttribute(String value) {
+        return value != null ? OrderStatus.fromStored(value) : null;
+    }
+}
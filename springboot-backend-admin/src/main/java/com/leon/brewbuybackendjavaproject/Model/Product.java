@@ -6,14 +6,20 @@ import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Keyset pagination seeks on (sort key, id)
+    @Index(name = "idx_products_name_id", columnList = "name, id"),
+    @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -33,13 +39,15 @@ public class Product {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Lob
-    @Column(name = "image_data", columnDefinition = "LONGBLOB")
-    private byte[] imageData;
-    
     @Column(name = "image_type")
     private String imageType;
     
+    @Column(name = "image_hash", length = 64)
+    private String imageHash; // SHA-256 of the image bytes, the key in the ImageStore
+    
+    @Column(name = "image_size")
+    private Long imageSize;
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -81,14 +89,6 @@ public class Product {
         this.quantity = quantity;
     }
     
-    public byte[] getImageData() {
-        return imageData;
-    }
-    
-    public void setImageData(byte[] imageData) {
-        this.imageData = imageData;
-    }
-    
     public String getImageType() {
         return imageType;
     }
@@ -96,5 +96,20 @@ public class Product {
     public void setImageType(String imageType) {
         this.imageType = imageType;
     }
+    
+    public String getImageHash() {
+        return imageHash;
+    }
+    
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+    
+    public Long getImageSize() {
+        return imageSize;
+    }
+    
+    public void setImageSize(Long imageSize) {
+        this.imageSize = imageSize;
+    }
 }
-
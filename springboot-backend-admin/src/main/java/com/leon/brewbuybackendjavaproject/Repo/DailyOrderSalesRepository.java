@@ -0,0 +1,15 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.DailyOrderSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyOrderSalesRepository extends JpaRepository<DailyOrderSales, Long> {
+    
+    // At most one row per day and status, read off the unique key
+    List<DailyOrderSales> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+}
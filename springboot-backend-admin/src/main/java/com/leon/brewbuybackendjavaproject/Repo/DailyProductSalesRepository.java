@@ -0,0 +1,24 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.DailyProductSales;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSalesResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, Long> {
+    
+    // Best sellers of a range of days; a product deleted since keeps its sales under a null name
+    @Query("select new com.leon.brewbuybackendjavaproject.dto.response.ProductSalesResponse(" +
+           "s.productId, p.name, sum(s.units), sum(s.revenue)) " +
+           "from DailyProductSales s left join Product p on p.id = s.productId " +
+           "where s.salesDate between :from and :to " +
+           "group by s.productId, p.name order by sum(s.revenue) desc, s.productId")
+    List<ProductSalesResponse> findTopSellers(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable page);
+}
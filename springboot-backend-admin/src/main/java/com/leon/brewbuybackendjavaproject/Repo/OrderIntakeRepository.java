@@ -0,0 +1,28 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderIntake;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, String> {
+    
+    Optional<OrderIntake> findByHandleAndUserId(String handle, Long userId);
+    
+    @Query("select i.handle from OrderIntake i where i.handle in :handles")
+    List<String> findExistingHandles(@Param("handles") Collection<String> handles);
+    
+    @Modifying
+    @Transactional
+    @Query("delete from OrderIntake i where i.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
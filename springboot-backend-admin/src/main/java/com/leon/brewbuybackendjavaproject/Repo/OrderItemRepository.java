@@ -4,9 +4,12 @@ import com.leon.brewbuybackendjavaproject.Model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+    
+    List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
 }
\ No newline at end of file
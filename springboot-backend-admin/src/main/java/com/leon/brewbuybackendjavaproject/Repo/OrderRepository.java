@@ -1,14 +1,58 @@
 package com.leon.brewbuybackendjavaproject.Repo;
 
 import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.OrderStatusRow;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+    
+    // The read methods fetch the items in the same query; every caller turns them into an OrderResponse
+    @EntityGraph(attributePaths = "orderItems")
     List<Order> findByUserId(Long userId);
+    
+    @EntityGraph(attributePaths = "orderItems")
     Optional<Order> findByIdAndUserId(Long id, Long userId);
-}
\ No newline at end of file
+    
+    @EntityGraph(attributePaths = "orderItems")
+    Optional<Order> findWithItemsById(Long id);
+    
+    // In no particular order
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findByIdIn(Collection<Long> ids);
+    
+    // Compare-and-set on the status: moves the order only while it is still in one of the expected
+    // statuses, so two concurrent transitions cannot both win. Returns the number of rows changed.
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :next, o.updatedAt = :now, o.version = o.version + 1 " +
+           "where o.id = :id and o.userId = :userId and o.status in :expected")
+    int transitionStatus(@Param("id") Long id, @Param("userId") Long userId,
+                         @Param("expected") Collection<OrderStatus> expected, @Param("next") OrderStatus next,
+                         @Param("now") LocalDateTime now);
+    
+    // Bulk transitions: read and lock the current statuses of a chunk, then move the movable ones in one statement
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.leon.brewbuybackendjavaproject.dto.OrderStatusRow(o.id, o.status, o.createdAt, o.totalAmount) " +
+           "from Order o where o.id in :ids")
+    List<OrderStatusRow> lockStatuses(@Param("ids") Collection<Long> ids);
+    
+    // Only for rows locked by lockStatuses in the same transaction, whose statuses are already checked;
+    // matching on the primary key alone keeps the plan a point lookup per id
+    @Modifying
+    @Query("update Order o set o.status = :next, o.updatedAt = :now, o.version = o.version + 1 where o.id in :ids")
+    int setLockedStatuses(@Param("ids") Collection<Long> ids, @Param("next") OrderStatus next,
+                          @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,26 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.OrderExportRow;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.request.OrderHistoryQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+    // Ids of up to query.getLimit() of the user's orders, newest first, positioned after the query's seek key
+    List<Long> findHistoryPageIds(OrderHistoryQuery query);
+    
+    // Up to query.getLimit() orders of any user matching the query's filters, newest first, positioned after its seek key
+    List<OrderSummaryResponse> searchOrders(AdminOrderSearchQuery query);
+    
+    // Ids above afterId, ascending, of orders in one of the statuses that match the request's filter
+    List<Long> findIdsForStatusChange(BulkOrderStatusRequest filter, Collection<OrderStatus> statuses, Long afterId, int limit);
+    
+    // Every order item joined with its order (orders without items once), ordered by order id; must be consumed inside a transaction
+    Stream<OrderExportRow> streamAllForExport();
+}
@@ -0,0 +1,178 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.OrderExportRow;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.request.OrderHistoryQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Rows per round trip; with useCursorFetch on the JDBC URL MySQL Connector/J streams the result set
+    @Value("${brewbuy.export.fetch-size:1000}")
+    private int exportFetchSize;
+    
+    @Override
+    public List<Long> findHistoryPageIds(OrderHistoryQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Order> o = cq.from(Order.class);
+        
+        Path<Long> id = o.get("id");
+        Path<LocalDateTime> createdAt = o.get("createdAt");
+        
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(o.get("userId"), query.getUserId()));
+        if (query.getStatus() != null) {
+            where.add(cb.equal(o.get("status"), query.getStatus()));
+        }
+        if (query.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            where.add(cb.lessThan(createdAt, query.getTo()));
+        }
+        // Seek instead of OFFSET, so every page is a short range scan of (user_id, created_at, id)
+        if (query.getAfterId() != null) {
+            where.add(cb.or(
+                    cb.lessThan(createdAt, query.getAfterCreatedAt()),
+                    cb.and(cb.equal(createdAt, query.getAfterCreatedAt()), cb.lessThan(id, query.getAfterId()))));
+        }
+        
+        // Ids only: paging a fetch join of the items would make Hibernate page in memory
+        cq.select(id);
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(cq)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+    
+    /**
+     * Each filter has an index that starts with its column and ends in (created_at, id),
+     * or, for the amount range and product, one that narrows the orders to few enough to
+     * sort. The seek predicate states created_at <= afterCreatedAt on its own as well, so
+     * the database can make it a range on the index instead of testing the OR row by row.
+     */
+    @Override
+    public List<OrderSummaryResponse> searchOrders(AdminOrderSearchQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryResponse> cq = cb.createQuery(OrderSummaryResponse.class);
+        Root<Order> o = cq.from(Order.class);
+        
+        Path<Long> id = o.get("id");
+        Path<LocalDateTime> createdAt = o.get("createdAt");
+        Path<BigDecimal> totalAmount = o.get("totalAmount");
+        
+        List<Predicate> where = new ArrayList<>();
+        if (query.getStatus() != null) {
+            where.add(cb.equal(o.get("status"), query.getStatus()));
+        }
+        if (query.getUserId() != null) {
+            where.add(cb.equal(o.get("userId"), query.getUserId()));
+        }
+        if (query.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            where.add(cb.lessThan(createdAt, query.getTo()));
+        }
+        if (query.getMinAmount() != null) {
+            where.add(cb.greaterThanOrEqualTo(totalAmount, query.getMinAmount()));
+        }
+        if (query.getMaxAmount() != null) {
+            where.add(cb.lessThanOrEqualTo(totalAmount, query.getMaxAmount()));
+        }
+        // A semi-join, so an order with several lines of the product still comes back once
+        if (query.getProductId() != null) {
+            Subquery<Long> lines = cq.subquery(Long.class);
+            Root<OrderItem> item = lines.from(OrderItem.class);
+            lines.select(item.get("order").get("id"));
+            lines.where(cb.equal(item.get("order"), o), cb.equal(item.get("productId"), query.getProductId()));
+            where.add(cb.exists(lines));
+        }
+        if (query.getAfterId() != null) {
+            where.add(cb.lessThanOrEqualTo(createdAt, query.getAfterCreatedAt()));
+            where.add(cb.or(
+                    cb.lessThan(createdAt, query.getAfterCreatedAt()),
+                    cb.lessThan(id, query.getAfterId())));
+        }
+        
+        // Order columns only: the items are never loaded, nor is any entity
+        cq.select(cb.construct(OrderSummaryResponse.class,
+                id, o.get("userId"), totalAmount, o.get("status"), createdAt, o.get("updatedAt")));
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(cq)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+    
+    @Override
+    public List<Long> findIdsForStatusChange(BulkOrderStatusRequest filter, Collection<OrderStatus> statuses,
+                                             Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Order> o = cq.from(Order.class);
+        
+        Path<Long> id = o.get("id");
+        Path<LocalDateTime> createdAt = o.get("createdAt");
+        
+        List<Predicate> where = new ArrayList<>();
+        where.add(o.get("status").in(statuses));
+        where.add(cb.greaterThan(id, afterId));
+        if (filter.getUserId() != null) {
+            where.add(cb.equal(o.get("userId"), filter.getUserId()));
+        }
+        if (filter.getCreatedFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            where.add(cb.lessThan(createdAt, filter.getCreatedTo()));
+        }
+        
+        // Walks (status, id) in id order, so each chunk starts where the last one stopped
+        cq.select(id);
+        cq.where(where.toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(id));
+        return entityManager.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public Stream<OrderExportRow> streamAllForExport() {
+        // One query for orders and items: while a MySQL streaming result set is open no other
+        // statement can run on the connection, so nothing may be lazy-loaded along the way
+        return entityManager.createQuery(
+                        "select new com.leon.brewbuybackendjavaproject.dto.OrderExportRow(" +
+                        "o.id, o.userId, o.totalAmount, o.status, o.createdAt, o.updatedAt, " +
+                        "i.id, i.productId, i.quantity, i.price) " +
+                        "from Order o left join o.orderItems i order by o.id, i.id", OrderExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .getResultStream();
+    }
+}
@@ -1,10 +1,40 @@
 package com.leon.brewbuybackendjavaproject.Repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    
+    // Selects only the columns ProductResponse needs for list views
+    @Query("select new com.leon.brewbuybackendjavaproject.dto.ProductSummary(" +
+           "p.id, p.name, p.description, p.price, p.quantity, p.imageType, p.imageHash, p.imageSize) " +
+           "from Product p order by p.id")
+    List<ProductSummary> findAllSummaries();
+    
+    @Query("select new com.leon.brewbuybackendjavaproject.dto.ProductSummary(" +
+           "p.id, p.name, p.description, p.price, p.quantity, p.imageType, p.imageHash, p.imageSize) " +
+           "from Product p where p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") Long id);
+    
+    @Query("select new com.leon.brewbuybackendjavaproject.dto.ProductSummary(" +
+           "p.id, p.name, p.description, p.price, p.quantity, p.imageType, p.imageHash, p.imageSize) " +
+           "from Product p where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Transactional
+    @Query("update Product p set p.imageHash = :hash, p.imageType = :type, p.imageSize = :size where p.id = :id")
+    int updateImage(@Param("id") Long id, @Param("hash") String hash, @Param("type") String type, @Param("size") Long size);
 }
 
@@ -0,0 +1,15 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductPageQuery;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+    // Returns up to query.getLimit() summaries positioned after the query's seek key
+    List<ProductSummary> findSummaryPage(ProductPageQuery query);
+    
+    // All summaries ordered by id, read row by row for exports; must be consumed inside a transaction
+    Stream<ProductSummary> streamAllSummaries();
+}
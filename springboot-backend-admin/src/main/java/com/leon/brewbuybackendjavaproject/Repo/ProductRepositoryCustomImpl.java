@@ -0,0 +1,104 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductPageQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Rows per round trip; with useCursorFetch on the JDBC URL MySQL Connector/J streams the result set
+    @Value("${brewbuy.export.fetch-size:1000}")
+    private int exportFetchSize;
+    
+    @Override
+    public Stream<ProductSummary> streamAllSummaries() {
+        return entityManager.createQuery(
+                        "select new com.leon.brewbuybackendjavaproject.dto.ProductSummary(" +
+                        "p.id, p.name, p.description, p.price, p.quantity, p.imageType, p.imageHash, p.imageSize) " +
+                        "from Product p order by p.id", ProductSummary.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+    
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<ProductSummary> findSummaryPage(ProductPageQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> cq = cb.createQuery(ProductSummary.class);
+        Root<Product> p = cq.from(Product.class);
+        
+        Path<Long> id = p.get("id");
+        Path<Comparable> sortKey = p.get(query.getSort());
+        
+        List<Predicate> where = new ArrayList<>();
+        if (query.getMinPrice() != null) {
+            where.add(cb.greaterThanOrEqualTo(p.get("price"), query.getMinPrice()));
+        }
+        if (query.getMaxPrice() != null) {
+            where.add(cb.lessThanOrEqualTo(p.get("price"), query.getMaxPrice()));
+        }
+        if (query.getMinQuantity() != null) {
+            where.add(cb.greaterThanOrEqualTo(p.get("quantity"), query.getMinQuantity()));
+        }
+        if (query.getNamePrefix() != null && !query.getNamePrefix().isEmpty()) {
+            // A bare trailing wildcard keeps the (name, id) index usable
+            where.add(cb.like(p.get("name"), escapeLike(query.getNamePrefix()) + "%", '\\'));
+        }
+        
+        // Seek past the last row of the previous page instead of using OFFSET,
+        // so page N costs the same index range scan as page 1
+        if (query.getAfterId() != null) {
+            if ("id".equals(query.getSort())) {
+                where.add(query.isDescending()
+                        ? cb.lessThan(id, query.getAfterId())
+                        : cb.greaterThan(id, query.getAfterId()));
+            } else {
+                Comparable afterKey = (Comparable) query.getAfterKey();
+                Predicate pastKey = query.isDescending()
+                        ? cb.lessThan(sortKey, afterKey)
+                        : cb.greaterThan(sortKey, afterKey);
+                Predicate pastId = query.isDescending()
+                        ? cb.lessThan(id, query.getAfterId())
+                        : cb.greaterThan(id, query.getAfterId());
+                where.add(cb.or(pastKey, cb.and(cb.equal(sortKey, afterKey), pastId)));
+            }
+        }
+        
+        cq.select(cb.construct(ProductSummary.class,
+                id, p.get("name"), p.get("description"), p.get("price"), p.get("quantity"),
+                p.get("imageType"), p.get("imageHash"), p.get("imageSize")));
+        cq.where(where.toArray(new Predicate[0]));
+        if ("id".equals(query.getSort())) {
+            cq.orderBy(query.isDescending() ? cb.desc(id) : cb.asc(id));
+        } else {
+            cq.orderBy(query.isDescending()
+                    ? List.of(cb.desc(sortKey), cb.desc(id))
+                    : List.of(cb.asc(sortKey), cb.asc(id)));
+        }
+        
+        return entityManager.createQuery(cq)
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
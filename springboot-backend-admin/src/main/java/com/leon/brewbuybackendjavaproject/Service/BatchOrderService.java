@@ -0,0 +1,86 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Places the orders of one batch submission, such as a POS terminal syncing the
+ * orders it took offline. Orders go through OrderService.createOrders in chunks,
+ * each chunk one transaction, so a chunk costs a handful of batched statements
+ * instead of a transaction per order. An order that is invalid or out of stock is
+ * rejected on its own result and the rest of the batch still goes in.
+ */
+@Service
+public class BatchOrderService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BatchOrderService.class);
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Value("${brewbuy.orders.batch.chunk-size:100}")
+    private int chunkSize;
+    
+    @Value("${brewbuy.orders.batch.max-orders:1000}")
+    private int maxOrders;
+    
+    // One placement per cart, in the same order
+    public List<OrderPlacement> createOrders(Long userId, List<List<OrderItem>> carts) {
+        if (carts == null || carts.isEmpty()) {
+            throw new IllegalArgumentException("Batch has no orders");
+        }
+        if (carts.size() > maxOrders) {
+            throw new IllegalArgumentException("At most " + maxOrders + " orders per batch");
+        }
+        
+        List<OrderPlacement> placements = new ArrayList<>(carts.size());
+        for (int from = 0; from < carts.size(); from += chunkSize) {
+            placements.addAll(placeChunk(userId, carts.subList(from, Math.min(from + chunkSize, carts.size()))));
+        }
+        return placements;
+    }
+    
+    private List<OrderPlacement> placeChunk(Long userId, List<List<OrderItem>> chunk) {
+        List<OrderPlacement> placements = placements(userId, chunk);
+        try {
+            orderService.createOrders(placements);
+            return placements;
+        } catch (RuntimeException e) {
+            // Not an order's own fault, those end up on its placement; try them one by one
+            // so only the order causing it fails
+            log.warn("Batch order chunk of {} failed, placing its orders one at a time", chunk.size(), e);
+        }
+        
+        List<OrderPlacement> retried = new ArrayList<>(chunk.size());
+        for (List<OrderItem> items : chunk) {
+            OrderPlacement placement = placements(userId, List.of(items)).get(0);
+            try {
+                orderService.createOrders(List.of(placement));
+            } catch (RuntimeException e) {
+                placement.reject(OrderPlacement.Outcome.FAILED, "Order could not be saved");
+            }
+            retried.add(placement);
+        }
+        return retried;
+    }
+    
+    // Fresh items for every attempt, since placing an order sets their prices and order
+    private static List<OrderPlacement> placements(Long userId, List<List<OrderItem>> carts) {
+        List<OrderPlacement> placements = new ArrayList<>(carts.size());
+        for (List<OrderItem> cart : carts) {
+            List<OrderItem> items = new ArrayList<>(cart.size());
+            for (OrderItem item : cart) {
+                items.add(new OrderItem(null, item.getProductId(), item.getQuantity(), null));
+            }
+            placements.add(new OrderPlacement(userId, items));
+        }
+        return placements;
+    }
+}
@@ -0,0 +1,150 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Repo.OrderItemRepository;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.dto.OrderStatusRow;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.response.BulkOrderStatusResponse;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves many orders to one status at once, for fulfilment runs. Orders go in
+ * chunks, each in its own transaction: one SELECT ... FOR UPDATE reads and locks
+ * the chunk's current statuses, and one UPDATE by primary key moves those that
+ * are allowed to make the move. So a chunk costs two statements however many orders it holds,
+ * and a single-order transition racing the run waits for the lock and then sees
+ * the new status. Cancelling also hands the chunk's stock back in the same transaction.
+ */
+@Service
+public class BulkOrderStatusService {
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Value("${brewbuy.orders.bulk.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${brewbuy.orders.bulk.max-ids:200000}")
+    private int maxIds;
+    
+    public BulkOrderStatusResponse apply(BulkOrderStatusRequest request) {
+        OrderStatus target = request.getStatus();
+        if (target == null) {
+            throw new IllegalArgumentException("Target status is required");
+        }
+        Set<OrderStatus> sources = target.allowedFrom();
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No order can move to " + target);
+        }
+        
+        BulkOrderStatusResponse response = new BulkOrderStatusResponse(target);
+        if (request.getOrderIds() != null) {
+            // Sorted, so concurrent runs lock rows in the same order and cannot deadlock
+            TreeSet<Long> ids = request.getOrderIds().stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            if (ids.size() > maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " order ids per request");
+            }
+            List<Long> chunk = new ArrayList<>(Math.min(chunkSize, ids.size()));
+            for (Long id : ids) {
+                chunk.add(id);
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, sources, target, response);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk, sources, target, response);
+            }
+            return response;
+        }
+        
+        // An empty filter walks every order; a forgotten field must not turn into that
+        if (request.getCurrentStatus() == null && request.getUserId() == null
+                && request.getCreatedFrom() == null && request.getCreatedTo() == null && !request.isAll()) {
+            throw new IllegalArgumentException("Give orderIds, at least one filter field, or all: true");
+        }
+        if (request.getCurrentStatus() != null) {
+            if (!sources.contains(request.getCurrentStatus())) {
+                throw new IllegalArgumentException("Orders cannot move from " + request.getCurrentStatus() + " to " + target);
+            }
+            sources = Set.of(request.getCurrentStatus());
+        }
+        long afterId = 0;
+        List<Long> chunk;
+        do {
+            chunk = orderRepository.findIdsForStatusChange(request, sources, afterId, chunkSize);
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk, sources, target, response);
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+        return response;
+    }
+    
+    private void applyChunk(List<Long> ids, Set<OrderStatus> sources, OrderStatus target, BulkOrderStatusResponse response) {
+        List<Long> movable = new ArrayList<>(ids.size());
+        List<Long> notFound = new ArrayList<>();
+        List<OrderStatusRow> rejected = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<OrderStatusRow> moved = new ArrayList<>(ids.size());
+            Map<Long, OrderStatusRow> current = orderRepository.lockStatuses(ids).stream()
+                    .collect(Collectors.toMap(OrderStatusRow::getId, Function.identity()));
+            for (Long id : ids) {
+                OrderStatusRow row = current.get(id);
+                if (row == null) {
+                    notFound.add(id);
+                } else if (sources.contains(row.getStatus())) {
+                    movable.add(id);
+                    moved.add(row);
+                } else {
+                    rejected.add(row);
+                }
+            }
+            if (!movable.isEmpty()) {
+                orderRepository.setLockedStatuses(movable, target, LocalDateTime.now());
+                salesRollupService.statusesChanged(moved, target);
+                // One release for the whole chunk's items
+                if (target == OrderStatus.CANCELLED) {
+                    inventoryService.releaseStock(orderItemRepository.findByOrderIdIn(movable));
+                }
+            }
+        });
+        
+        // Only reported once the chunk has committed
+        response.getUpdated().addAll(movable);
+        response.getNotFound().addAll(notFound);
+        for (OrderStatusRow row : rejected) {
+            response.getRejected().put(row.getId(), row.getStatus());
+        }
+    }
+}
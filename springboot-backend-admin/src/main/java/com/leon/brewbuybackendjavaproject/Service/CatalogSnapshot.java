@@ -0,0 +1,33 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+// The product list serialized once per catalog version, served as-is until the next change
+public class CatalogSnapshot {
+    private final long version;
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    
+    public CatalogSnapshot(long version, String etag, byte[] json, byte[] gzippedJson) {
+        this.version = version;
+        this.etag = etag;
+        this.json = json;
+        this.gzippedJson = gzippedJson;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    // Callers must not modify the returned arrays
+    public byte[] getJson() {
+        return json;
+    }
+    
+    public byte[] getGzippedJson() {
+        return gzippedJson;
+    }
+}
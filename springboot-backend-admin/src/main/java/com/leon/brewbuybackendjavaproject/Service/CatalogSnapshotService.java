@@ -0,0 +1,89 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductResponse;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import com.leon.brewbuybackendjavaproject.util.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps GET /api/products as pre-serialized bytes. Every product mutation bumps
+ * the catalog version; the first request after a bump rebuilds the snapshot and
+ * all later ones reuse it until the next change.
+ */
+@Service
+public class CatalogSnapshotService {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final AtomicLong version = new AtomicLong();
+    private volatile CatalogSnapshot snapshot;
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+    
+    public long getVersion() {
+        return version.get();
+    }
+    
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            // Read the version before querying: a change made while we build leaves
+            // this snapshot behind the counter, so the next request rebuilds it
+            long buildVersion = version.get();
+            current = snapshot;
+            if (current != null && current.getVersion() == buildVersion) {
+                return current;
+            }
+            current = build(buildVersion);
+            snapshot = current;
+            return current;
+        }
+    }
+    
+    private CatalogSnapshot build(long buildVersion) {
+        List<ProductResponse> products = productService.getProductSummaries().stream()
+                .map(ProductResponse::new)
+                .collect(Collectors.toList());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            // Content-derived, so the ETag stays valid across restarts as long as the data is the same
+            String etag = HexFormat.of().formatHex(Hashing.sha256().digest(json), 0, 16);
+            return new CatalogSnapshot(buildVersion, etag, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product catalog", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,180 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.dto.OrderExportRow;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderItemResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes full catalog and order dumps as CSV or NDJSON straight from a
+ * streamed query. Rows are projections, so nothing accumulates in the
+ * persistence context and heap use does not grow with the table.
+ */
+@Service
+public class ExportService {
+    
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // Same columns the import reads, so an export can be edited and imported again
+    private static final CsvSchema PRODUCT_SCHEMA = CsvSchema.builder()
+            .addColumn("id").addColumn("name").addColumn("description").addColumn("price")
+            .addColumn("quantity").addColumn("imageType").addColumn("imageHash").addColumn("imageUrl")
+            .build().withHeader();
+    
+    private static final CsvSchema ORDER_SCHEMA = CsvSchema.builder()
+            .addColumn("orderId").addColumn("userId").addColumn("totalAmount").addColumn("status")
+            .addColumn("createdAt").addColumn("updatedAt").addColumn("itemId").addColumn("productId")
+            .addColumn("quantity").addColumn("price")
+            .build().withHeader();
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Columns come from the schemas above, extra properties are left out
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(JsonGenerator.Feature.IGNORE_UNKNOWN)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+    
+    public boolean isSupportedFormat(String format) {
+        return FORMAT_NDJSON.equals(format) || FORMAT_CSV.equals(format);
+    }
+    
+    public void writeProducts(String format, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        inReadOnlyTransaction(() -> {
+            try (Stream<ProductSummary> rows = productRepository.streamAllSummaries();
+                 SequenceWriter writer = sequenceWriter(format, PRODUCT_SCHEMA, buffered)) {
+                Iterator<ProductSummary> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(new ProductResponse(iterator.next()));
+                }
+            }
+        });
+        buffered.flush();
+    }
+    
+    public void writeOrders(String format, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+        inReadOnlyTransaction(() -> {
+            try (Stream<OrderExportRow> rows = orderRepository.streamAllForExport();
+                 SequenceWriter writer = sequenceWriter(format, ORDER_SCHEMA, buffered)) {
+                Iterator<OrderExportRow> iterator = rows.iterator();
+                if (FORMAT_CSV.equals(format)) {
+                    // Flat, one line per item
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                    }
+                    return;
+                }
+                
+                // Rows arrive ordered by order id, so each order is complete once the id changes
+                OrderResponse order = null;
+                while (iterator.hasNext()) {
+                    OrderExportRow row = iterator.next();
+                    if (order == null || !order.getId().equals(row.getOrderId())) {
+                        if (order != null) {
+                            writer.write(order);
+                        }
+                        order = toOrderResponse(row);
+                    }
+                    if (row.getItemId() != null) {
+                        order.getItems().add(toItemResponse(row));
+                    }
+                }
+                if (order != null) {
+                    writer.write(order);
+                }
+            }
+        });
+        buffered.flush();
+    }
+    
+    private SequenceWriter sequenceWriter(String format, CsvSchema schema, OutputStream out) throws IOException {
+        if (FORMAT_CSV.equals(format)) {
+            return csvMapper.writer(schema).writeValues(out);
+        }
+        return objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+    }
+    
+    private static OrderResponse toOrderResponse(OrderExportRow row) {
+        OrderResponse order = new OrderResponse();
+        order.setId(row.getOrderId());
+        order.setUserId(row.getUserId());
+        order.setTotalAmount(row.getTotalAmount());
+        order.setStatus(row.getStatus().name());
+        order.setCreatedAt(row.getCreatedAt());
+        order.setUpdatedAt(row.getUpdatedAt());
+        order.setItems(new ArrayList<>());
+        return order;
+    }
+    
+    private static OrderItemResponse toItemResponse(OrderExportRow row) {
+        OrderItemResponse item = new OrderItemResponse();
+        item.setId(row.getItemId());
+        item.setProductId(row.getProductId());
+        item.setQuantity(row.getQuantity());
+        item.setPrice(row.getPrice());
+        return item;
+    }
+    
+    private interface ExportWork {
+        void run() throws IOException;
+    }
+    
+    // Streamed queries need their transaction (and connection) open until the last row is read
+    private void inReadOnlyTransaction(ExportWork work) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public interface InventoryService {
+    // Takes the items' quantities off product stock in the caller's transaction, all or nothing
+    void reserveStock(List<OrderItem> items);
+    
+    // Reserves several orders in the caller's transaction, each all or nothing and in the given order;
+    // an order that does not fit is skipped rather than failing the rest. Returns which orders got their stock
+    boolean[] reserveEach(List<List<OrderItem>> orders);
+    
+    // Puts the items' quantities back on product stock once the caller's transaction commits,
+    // for orders cancelled or deleted before shipping. Products deleted since are skipped
+    void releaseStock(List<OrderItem> items);
+    
+    // Total quantity per product, in id order, so shared products are always locked in the same order
+    static Map<Long, Integer> quantitiesByProduct(List<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product id is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Math::addExact);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,178 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leon.brewbuybackendjavaproject.Model.IdempotencyRecord;
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Repo.IdempotencyRecordRepository;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderResponse;
+import com.leon.brewbuybackendjavaproject.exception.IdempotencyKeyReuseException;
+import com.leon.brewbuybackendjavaproject.util.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Creates orders under a client-chosen Idempotency-Key, so a retried POST gets
+ * the first order back instead of a second one. Two layers keep it cheap:
+ *
+ * An in-memory map, bounded and expiring after the TTL, holds one future per
+ * key. The first request for a key creates the order and completes the future;
+ * duplicates arriving meanwhile wait on it, and later ones read it, without
+ * touching the database.
+ *
+ * Behind it, the idempotency_keys table has a unique (user_id, idempotency_key).
+ * The first request claims its key there in the same transaction as the order,
+ * so a key whose entry was evicted, or which another instance is handling, still
+ * maps to at most one order; the loser's transaction rolls back and it replays
+ * the stored response instead.
+ */
+@Service
+public class OrderIdempotencyService {
+    
+    // What a request under a key produced, as sent to the client
+    private static final class Outcome {
+        final String requestHash;
+        final String responseBody;
+        
+        Outcome(String requestHash, String responseBody) {
+            this.requestHash = requestHash;
+            this.responseBody = responseBody;
+        }
+    }
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final Duration ttl;
+    private final Cache<String, CompletableFuture<Outcome>> outcomes;
+    
+    public OrderIdempotencyService(@Value("${brewbuy.orders.idempotency.ttl:24h}") Duration ttl,
+                                   @Value("${brewbuy.orders.idempotency.max-entries:100000}") long maxEntries) {
+        this.ttl = ttl;
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    public OrderResponse createOrder(Long userId, String idempotencyKey, List<OrderItem> orderItems) {
+        String requestHash = hash(orderItems);
+        String cacheKey = userId + ":" + idempotencyKey;
+        
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        CompletableFuture<Outcome> existing = outcomes.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            return replay(await(existing), idempotencyKey, requestHash);
+        }
+        
+        Outcome outcome;
+        try {
+            outcome = execute(userId, idempotencyKey, requestHash, orderItems);
+        } catch (RuntimeException e) {
+            // Failures are not remembered: waiters see this one, and the next retry runs again
+            outcomes.asMap().remove(cacheKey, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(outcome);
+        return replay(outcome, idempotencyKey, requestHash);
+    }
+    
+    // Records outlive their in-memory entries only until the TTL
+    @Scheduled(initialDelayString = "${brewbuy.orders.idempotency.purge-interval:PT1H}",
+               fixedDelayString = "${brewbuy.orders.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+    
+    private Outcome execute(Long userId, String idempotencyKey, String requestHash, List<OrderItem> orderItems) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (stored.isPresent()) {
+            return new Outcome(stored.get().getRequestHash(), stored.get().getResponseBody());
+        }
+        
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                // Claim the key first: a concurrent claim elsewhere blocks on the unique key until this commits
+                IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(
+                        new IdempotencyRecord(userId, idempotencyKey, requestHash));
+                Order order = orderService.createOrder(userId, orderItems);
+                String responseBody = write(new OrderResponse(order));
+                record.setOrderId(order.getId());
+                record.setResponseBody(responseBody);
+                return new Outcome(requestHash, responseBody);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost the claim; the winner has committed by the time the insert fails
+            return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                    .map(record -> new Outcome(record.getRequestHash(), record.getResponseBody()))
+                    .orElseThrow(() -> e);
+        }
+    }
+    
+    private OrderResponse replay(Outcome outcome, String idempotencyKey, String requestHash) {
+        if (!outcome.requestHash.equals(requestHash)) {
+            throw new IdempotencyKeyReuseException(idempotencyKey);
+        }
+        try {
+            return objectMapper.readValue(outcome.responseBody, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored order response is not readable", e);
+        }
+    }
+    
+    private static Outcome await(CompletableFuture<Outcome> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private String write(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order response", e);
+        }
+    }
+    
+    // The client's prices are ignored when pricing, so only products and quantities identify the order
+    private static String hash(List<OrderItem> orderItems) {
+        MessageDigest digest = Hashing.sha256();
+        for (OrderItem item : orderItems) {
+            digest.update((item.getProductId() + ":" + item.getQuantity() + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
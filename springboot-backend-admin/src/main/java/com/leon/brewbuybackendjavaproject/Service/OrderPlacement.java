@@ -0,0 +1,55 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+
+import java.util.List;
+
+// One order of a multi-order placement (OrderService.createOrders): what to place, and how it went
+public class OrderPlacement {
+    
+    public enum Outcome { PENDING, CREATED, INVALID, OUT_OF_STOCK, FAILED }
+    
+    private final Long userId;
+    private final List<OrderItem> items;
+    private Outcome outcome = Outcome.PENDING;
+    private Order order;
+    private String error;
+    
+    public OrderPlacement(Long userId, List<OrderItem> items) {
+        this.userId = userId;
+        this.items = items;
+    }
+    
+    public void created(Order order) {
+        this.order = order;
+        this.outcome = Outcome.CREATED;
+    }
+    
+    // Also used by callers whose transaction failed after the placement
+    public void reject(Outcome outcome, String error) {
+        this.order = null;
+        this.outcome = outcome;
+        this.error = error;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public List<OrderItem> getItems() {
+        return items;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public Order getOrder() {
+        return order;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
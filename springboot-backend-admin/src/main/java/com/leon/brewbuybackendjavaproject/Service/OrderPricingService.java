@@ -0,0 +1,69 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prices an order from the catalog rather than from what the client sent. All
+ * products of the cart come from one getProductsByIds call, which is served
+ * from the product cache and loads the misses with a single query, however
+ * many lines the cart has.
+ */
+@Service
+public class OrderPricingService {
+    
+    @Autowired
+    private ProductService productService;
+    
+    // Sets each item's price to the product's current price and returns the order total
+    public BigDecimal price(List<OrderItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+        List<Long> ids = new ArrayList<>(items.size());
+        Set<Long> seen = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product id is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            if (!seen.add(item.getProductId())) {
+                throw new IllegalArgumentException("Duplicate product id: " + item.getProductId());
+            }
+            ids.add(item.getProductId());
+        }
+        
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productService.getProductsByIds(ids)) {
+            products.put(product.getId(), product);
+        }
+        
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with id: " + item.getProductId());
+            }
+            // Early answer only; the reservation is what actually holds the stock
+            if (product.getQuantity() == null || product.getQuantity() < item.getQuantity()) {
+                throw new InsufficientStockException(product.getId(), item.getQuantity());
+            }
+            item.setPrice(product.getPrice());
+            total = total.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+}
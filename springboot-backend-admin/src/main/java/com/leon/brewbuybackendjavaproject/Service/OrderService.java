@@ -2,13 +2,21 @@ package com.leon.brewbuybackendjavaproject.Service;
 
 import com.leon.brewbuybackendjavaproject.Model.Order;
 import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.request.OrderHistoryQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
 import java.util.List;
 
 public interface OrderService {
     Order createOrder(Long userId, List<OrderItem> orderItems);
+    void createOrders(List<OrderPlacement> placements);
     Order getOrderById(Long id);
     Order getOrderByIdAndUserId(Long id, Long userId);
     List<Order> getOrdersByUserId(Long userId);
-    Order updateOrderStatus(Long id, Long userId, String status);
+    CursorPage<Order> getOrderHistory(OrderHistoryQuery query, String cursor);
+    CursorPage<OrderSummaryResponse> searchOrders(AdminOrderSearchQuery query, String cursor);
+    Order updateOrderStatus(Long id, Long userId, OrderStatus status);
     void deleteOrder(Long id, Long userId);
 }
\ No newline at end of file
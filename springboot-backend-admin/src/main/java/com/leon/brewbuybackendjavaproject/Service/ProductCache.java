@@ -0,0 +1,139 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-process cache of products by id in front of ProductRepository. Caffeine's
+ * W-TinyLFU policy bounds it by approximate memory footprint. The cache holds
+ * private copies and hands out fresh ones, so callers may modify what they get
+ * without touching the cached state.
+ */
+@Component
+public class ProductCache {
+    
+    // Rough per-entity overhead besides its strings: object headers, BigDecimal, boxed numbers, hash
+    private static final int BASE_WEIGHT = 256;
+    
+    private final Cache<Long, Product> cache; // null when caching is switched off
+    
+    public ProductCache(@Value("${brewbuy.products.cache.enabled:true}") boolean enabled,
+                        @Value("${brewbuy.products.cache.max-weight:64MB}") DataSize maxWeight) {
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                    .maximumWeight(maxWeight.toBytes())
+                    .weigher((Long id, Product product) -> weigh(product))
+                    .recordStats()
+                    .build()
+                : null;
+    }
+    
+    public boolean isEnabled() {
+        return cache != null;
+    }
+    
+    public Optional<Product> get(Long id, Function<Long, Optional<Product>> loader) {
+        if (cache == null) {
+            return loader.apply(id);
+        }
+        // Concurrent misses on one id share a single load; absent products are not cached
+        Product product = cache.get(id, key -> loader.apply(key).map(ProductCache::copy).orElse(null));
+        return Optional.ofNullable(product).map(ProductCache::copy);
+    }
+    
+    // Loads all missing ids with a single call to the loader
+    public Map<Long, Product> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, Product>> loader) {
+        Map<Long, Product> found;
+        if (cache == null) {
+            found = loader.apply(Set.copyOf(ids));
+        } else {
+            found = cache.getAll(ids, missing -> {
+                Map<Long, Product> loaded = new HashMap<>();
+                loader.apply(Set.copyOf(missing)).forEach((id, product) -> loaded.put(id, copy(product)));
+                return loaded;
+            });
+        }
+        Map<Long, Product> result = new HashMap<>();
+        found.forEach((id, product) -> result.put(id, copy(product)));
+        return result;
+    }
+    
+    // Write-through after a successful save
+    public void put(Product product) {
+        if (cache != null && product.getId() != null) {
+            cache.put(product.getId(), copy(product));
+        }
+    }
+    
+    public void invalidate(Long id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+    }
+    
+    public void invalidateAll(Collection<Long> ids) {
+        if (cache != null) {
+            cache.invalidateAll(ids);
+        }
+    }
+    
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+    
+    public long size() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+    
+    public long weightedSize() {
+        if (cache == null) {
+            return 0;
+        }
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+    
+    // Cleans up pending evictions; mainly useful to get exact stats
+    public void cleanUp() {
+        if (cache != null) {
+            cache.cleanUp();
+        }
+    }
+    
+    static int weigh(Product product) {
+        // Java strings cost up to two bytes per char
+        int chars = length(product.getName()) + length(product.getDescription())
+                + length(product.getImageType()) + length(product.getImageHash());
+        return BASE_WEIGHT + 2 * chars;
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+    
+    private static Product copy(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setQuantity(product.getQuantity());
+        copy.setImageType(product.getImageType());
+        copy.setImageHash(product.getImageHash());
+        copy.setImageSize(product.getImageSize());
+        return copy;
+    }
+}
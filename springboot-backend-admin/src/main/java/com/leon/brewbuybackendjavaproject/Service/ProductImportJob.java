@@ -0,0 +1,154 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one catalog import, updated by the import thread and read by GET /api/products/import/{id}
+public class ProductImportJob {
+    
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+    
+    public static class LineError {
+        private final long line;
+        private final String message;
+        
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        public long getLine() {
+            return line;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+    
+    private final String id;
+    private final String format;
+    private final long bytes;
+    private final int maxErrors;
+    private final Instant submittedAt = Instant.now();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile String failure;
+    
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    
+    // Only the first maxErrors are kept so a broken file cannot grow the job without bound
+    private final List<LineError> errors = new ArrayList<>();
+    
+    public ProductImportJob(String id, String format, long bytes, int maxErrors) {
+        this.id = id;
+        this.format = format;
+        this.bytes = bytes;
+        this.maxErrors = maxErrors;
+    }
+    
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+    
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+    
+    void fail(String message) {
+        failure = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+    
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+    
+    void rowCreated() {
+        created.incrementAndGet();
+    }
+    
+    void rowUpdated() {
+        updated.incrementAndGet();
+    }
+    
+    void rowFailed(long line, String message) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new LineError(line, message));
+            }
+        }
+    }
+    
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getFormat() {
+        return format;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public String getFailure() {
+        return failure;
+    }
+    
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+    
+    public long getCreated() {
+        return created.get();
+    }
+    
+    public long getUpdated() {
+        return updated.get();
+    }
+    
+    public long getFailed() {
+        return failed.get();
+    }
+    
+    public List<LineError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+    
+    public boolean isErrorsTruncated() {
+        return failed.get() > maxErrors;
+    }
+}
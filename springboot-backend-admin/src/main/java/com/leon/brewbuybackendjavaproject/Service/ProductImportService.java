@@ -0,0 +1,401 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductImportRow;
+import com.leon.brewbuybackendjavaproject.exception.ImageTooLargeException;
+import com.leon.brewbuybackendjavaproject.exception.ImportTooLargeException;
+import com.leon.brewbuybackendjavaproject.exception.UnsupportedImageException;
+import com.leon.brewbuybackendjavaproject.image.ImageStore;
+import com.leon.brewbuybackendjavaproject.image.ImageUploadProcessor;
+import com.leon.brewbuybackendjavaproject.image.StagedImage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming catalog import. The upload is spooled to a temp file and parsed
+ * one row at a time on a background thread; Base64 images are decoded on a
+ * bounded pool and rows are upserted through ProductService in fixed-size
+ * chunks, each its own transaction. At most one chunk of rows is held in
+ * memory, however large the file.
+ */
+@Service
+public class ProductImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ImageUploadProcessor imageUploadProcessor;
+    
+    @Autowired
+    private ImageStore imageStore;
+    
+    private final ObjectReader jsonRowReader;
+    private final ObjectReader csvRowReader;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Duration retention;
+    private final long maxBytes;
+    
+    // Imports run one at a time, a few more may wait their turn
+    private final ThreadPoolExecutor jobExecutor;
+    // Bounded queue with caller-runs: when decoding falls behind, the parser thread helps instead of reading ahead
+    private final ThreadPoolExecutor decodeExecutor;
+    
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+    
+    public ProductImportService(ObjectMapper objectMapper,
+                                @Value("${brewbuy.products.import.chunk-size:500}") int chunkSize,
+                                @Value("${brewbuy.products.import.decode-workers:4}") int decodeWorkers,
+                                @Value("${brewbuy.products.import.max-queued-jobs:4}") int maxQueuedJobs,
+                                @Value("${brewbuy.products.import.max-errors:1000}") int maxErrors,
+                                @Value("${brewbuy.products.import.retention:PT1H}") Duration retention,
+                                @Value("${brewbuy.products.import.max-bytes:256MB}") DataSize maxBytes) {
+        this.jsonRowReader = objectMapper.readerFor(ProductImportRow.class);
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        csvMapper.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        this.csvRowReader = csvMapper.readerFor(ProductImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+        this.maxBytes = maxBytes.toBytes();
+        
+        AtomicInteger decodeThreads = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs), runnable -> {
+                    Thread thread = new Thread(runnable, "product-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.decodeExecutor = new ThreadPoolExecutor(decodeWorkers, decodeWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(decodeWorkers * 2), runnable -> {
+                    Thread thread = new Thread(runnable, "product-import-decode-" + decodeThreads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        decodeExecutor.shutdownNow();
+    }
+    
+    public boolean isSupportedFormat(String format) {
+        return FORMAT_NDJSON.equals(format) || FORMAT_CSV.equals(format);
+    }
+    
+    /**
+     * Spools the upload and queues the import. Throws RejectedExecutionException
+     * when too many imports are already waiting, and ImportTooLargeException
+     * when the upload is larger than brewbuy.products.import.max-bytes.
+     */
+    public ProductImportJob submit(String format, InputStream in) throws IOException {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        pruneFinishedJobs();
+        if (jobExecutor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Too many imports queued");
+        }
+        
+        Path file = Files.createTempFile("product-import-", "." + format);
+        try {
+            long bytes = spool(in, file);
+            ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), format, bytes, maxErrors);
+            jobs.put(job.getId(), job);
+            try {
+                jobExecutor.execute(() -> run(job, file));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+    
+    // Stops copying as soon as the cap is passed rather than filling the disk first
+    private long spool(InputStream in, Path file) throws IOException {
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new ImportTooLargeException(maxBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return total;
+    }
+    
+    public Optional<ProductImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+    
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+    
+    private void run(ProductImportJob job, Path file) {
+        job.start();
+        try (RowSource rows = open(job.getFormat(), Files.newInputStream(file))) {
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            ParsedRow row;
+            while ((row = rows.next()) != null) {
+                job.rowRead();
+                if (row.error != null) {
+                    job.rowFailed(row.line, row.error);
+                    continue;
+                }
+                ProductImportRow data = row.data;
+                chunk.add(new PendingRow(row.line, decodeExecutor.submit(() -> toProduct(data))));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            writeChunk(job, chunk);
+            job.complete();
+            log.info("Product import {} finished: {} rows, {} created, {} updated, {} failed",
+                    job.getId(), job.getRowsRead(), job.getCreated(), job.getUpdated(), job.getFailed());
+        } catch (Exception e) {
+            log.warn("Product import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", file, e);
+            }
+        }
+    }
+    
+    private void writeChunk(ProductImportJob job, List<PendingRow> chunk) throws InterruptedException {
+        List<Product> products = new ArrayList<>(chunk.size());
+        List<Long> lines = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            try {
+                products.add(pending.product.get());
+                lines.add(pending.line);
+            } catch (ExecutionException e) {
+                job.rowFailed(pending.line, e.getCause().getMessage());
+            }
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+        
+        List<Boolean> isUpdate = new ArrayList<>(products.size());
+        products.forEach(product -> isUpdate.add(product.getId() != null));
+        try {
+            List<Product> saved = productService.upsertProducts(products);
+            for (int i = 0; i < saved.size(); i++) {
+                if (saved.get(i) == null) {
+                    job.rowFailed(lines.get(i), "Product not found with id: " + products.get(i).getId());
+                } else if (isUpdate.get(i)) {
+                    job.rowUpdated();
+                } else {
+                    job.rowCreated();
+                }
+            }
+        } catch (RuntimeException e) {
+            // The whole chunk rolled back
+            log.warn("Product import {} could not write lines {}-{}", job.getId(),
+                    lines.get(0), lines.get(lines.size() - 1), e);
+            for (Long line : lines) {
+                job.rowFailed(line, "Chunk rolled back: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Runs on the decode pool; the exception message becomes the line's error
+    private Product toProduct(ProductImportRow row) throws IOException {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (row.getPrice() == null) {
+            throw new IllegalArgumentException("Price is required");
+        }
+        if (row.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+        if (row.getQuantity() == null) {
+            throw new IllegalArgumentException("Quantity is required");
+        }
+        if (row.getQuantity() < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative");
+        }
+        
+        Product product = new Product();
+        product.setId(row.getId());
+        product.setName(row.getName());
+        product.setDescription(row.getDescription());
+        product.setPrice(row.getPrice());
+        product.setQuantity(row.getQuantity());
+        
+        if (row.getImageBase64() != null && !row.getImageBase64().isEmpty()) {
+            InputStream image = Base64.getMimeDecoder().wrap(
+                    new ByteArrayInputStream(row.getImageBase64().getBytes(StandardCharsets.US_ASCII)));
+            try (StagedImage staged = imageUploadProcessor.stage(image)) {
+                product.setImageHash(imageStore.put(staged));
+                product.setImageType(staged.getMimeType());
+                product.setImageSize(staged.getSize());
+            } catch (ImageTooLargeException | UnsupportedImageException e) {
+                throw new IllegalArgumentException("Image rejected: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // Thrown by the Base64 decoder
+                throw new IllegalArgumentException("Invalid Base64 image: " + e.getMessage());
+            }
+        }
+        return product;
+    }
+    
+    private RowSource open(String format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return FORMAT_CSV.equals(format) ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+    }
+    
+    private static class PendingRow {
+        final long line;
+        final Future<Product> product;
+        
+        PendingRow(long line, Future<Product> product) {
+            this.line = line;
+            this.product = product;
+        }
+    }
+    
+    // A parsed row, or the reason its line could not be parsed
+    private static class ParsedRow {
+        final long line;
+        final ProductImportRow data;
+        final String error;
+        
+        ParsedRow(long line, ProductImportRow data, String error) {
+            this.line = line;
+            this.data = data;
+            this.error = error;
+        }
+    }
+    
+    private interface RowSource extends Closeable {
+        // Null at end of input
+        ParsedRow next() throws IOException;
+    }
+    
+    // One JSON object per line, each parsed on its own so a bad line cannot derail the rest
+    private class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long lineNumber;
+        
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return new ParsedRow(lineNumber, jsonRowReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(lineNumber, null, e.getOriginalMessage());
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    // Header row names the columns; quoted fields may span lines, so line numbers come from the parser
+    private class CsvRowSource implements RowSource {
+        private final MappingIterator<ProductImportRow> rows;
+        
+        CsvRowSource(Reader reader) throws IOException {
+            this.rows = csvRowReader.readValues(reader);
+        }
+        
+        @Override
+        public ParsedRow next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            long line = rows.getCurrentLocation().getLineNr();
+            try {
+                return new ParsedRow(line, rows.nextValue(), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, e.getOriginalMessage());
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+}
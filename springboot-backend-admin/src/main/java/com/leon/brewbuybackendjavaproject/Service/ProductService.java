@@ -1,14 +1,25 @@
 package com.leon.brewbuybackendjavaproject.Service;
 
 import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.image.StagedImage;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductPageQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductService {
     List<Product> getAllProducts();
+    List<ProductSummary> getProductSummaries();
+    CursorPage<ProductSummary> getProductPage(ProductPageQuery query, String cursor);
     Optional<Product> getProductById(Long id);
+    // In the order of ids, skipping ids that do not exist; served from the product cache where possible
+    List<Product> getProductsByIds(List<Long> ids);
     Product createProduct(Product product);
     List<Product> createProducts(List<Product> products);
     Product updateProduct(Long id, Product product);
+    // Products with an id update that product (null in the result if it does not exist), the rest are created; one transaction
+    List<Product> upsertProducts(List<Product> products);
+    ProductSummary updateProductImage(Long id, StagedImage image);
     void deleteProduct(Long id);
 }
@@ -2,11 +2,32 @@ package com.leon.brewbuybackendjavaproject.Service;
 
 import com.leon.brewbuybackendjavaproject.Model.Product;
 import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.request.ProductPageQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import com.leon.brewbuybackendjavaproject.exception.ProductNotFoundException;
+import com.leon.brewbuybackendjavaproject.image.ImageStore;
+import com.leon.brewbuybackendjavaproject.image.StagedImage;
+import com.leon.brewbuybackendjavaproject.image.ThumbnailService;
+import com.leon.brewbuybackendjavaproject.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -14,43 +35,204 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ImageStore imageStore;
+    
+    @Autowired
+    private ThumbnailService thumbnailService;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     @Override
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
     
+    @Override
+    public List<ProductSummary> getProductSummaries() {
+        return productRepository.findAllSummaries();
+    }
+    
+    @Override
+    public CursorPage<ProductSummary> getProductPage(ProductPageQuery query, String cursor) {
+        String direction = query.isDescending() ? "desc" : "asc";
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 4);
+            if (!parts[0].equals(query.getSort()) || !parts[1].equals(direction)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            query.setAfterKey(parseSortKey(query.getSort(), parts[2]));
+            query.setAfterId(Long.valueOf(parts[3]));
+        }
+        
+        // Fetch one extra row to learn whether another page exists
+        int limit = query.getLimit();
+        query.setLimit(limit + 1);
+        List<ProductSummary> rows = productRepository.findSummaryPage(query);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        
+        List<ProductSummary> page = new ArrayList<>(rows.subList(0, limit));
+        ProductSummary last = page.get(limit - 1);
+        String nextCursor = CursorCodec.encode(query.getSort(), direction,
+                sortKeyOf(query.getSort(), last), String.valueOf(last.getId()));
+        return new CursorPage<>(page, nextCursor);
+    }
+    
+    private Object parseSortKey(String sort, String value) {
+        switch (sort) {
+            case "name":
+                return value;
+            case "price":
+                return new BigDecimal(value);
+            default:
+                return Long.valueOf(value);
+        }
+    }
+    
+    private String sortKeyOf(String sort, ProductSummary summary) {
+        switch (sort) {
+            case "name":
+                return summary.getName();
+            case "price":
+                return summary.getPrice().toPlainString();
+            default:
+                return String.valueOf(summary.getId());
+        }
+    }
+    
     @Override
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return productCache.get(id, productRepository::findById);
+    }
+    
+    @Override
+    public List<Product> getProductsByIds(List<Long> ids) {
+        Map<Long, Product> found = productCache.getAll(ids, missing -> productRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.put(saved);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(List.of(saved.getId())));
+        return saved;
     }
     
     @Override
     public List<Product> createProducts(List<Product> products) {
-        return productRepository.saveAll(products);
+        List<Product> saved = productRepository.saveAll(products);
+        saved.forEach(productCache::put);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(
+                saved.stream().map(Product::getId).collect(Collectors.toList())));
+        return saved;
     }
     
     @Override
     public Product updateProduct(Long id, Product productDetails) {
         Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+                .orElseThrow(() -> new ProductNotFoundException(id));
         
-        product.setName(productDetails.getName());
-        product.setDescription(productDetails.getDescription());
-        product.setPrice(productDetails.getPrice());
-        product.setQuantity(productDetails.getQuantity());
+        copyDetails(productDetails, product);
+        Product saved = productRepository.save(product);
+        // Invalidate rather than put, so a slower concurrent update cannot leave its older copy behind
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(List.of(id)));
+        return saved;
+    }
+    
+    @Override
+    public List<Product> upsertProducts(List<Product> products) {
+        List<Product> saved = new TransactionTemplate(transactionManager).execute(status -> {
+            Set<Long> ids = products.stream()
+                    .map(Product::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<Long, Product> existing = productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            
+            List<Product> result = new ArrayList<>(products.size());
+            List<Product> created = new ArrayList<>();
+            for (Product product : products) {
+                if (product.getId() == null) {
+                    created.add(product);
+                    result.add(product);
+                } else {
+                    // Managed entity, the change is flushed on commit
+                    Product target = existing.get(product.getId());
+                    if (target != null) {
+                        copyDetails(product, target);
+                    }
+                    result.add(target);
+                }
+            }
+            productRepository.saveAll(created);
+            return result;
+        });
+        
+        // After commit, so nothing reloads or rebuilds from rows that are not visible yet
+        List<Long> changedIds = saved.stream()
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .collect(Collectors.toList());
+        changedIds.forEach(productCache::invalidate);
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.changed(changedIds));
+        }
+        return saved;
+    }
+    
+    private void copyDetails(Product source, Product target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setPrice(source.getPrice());
+        target.setQuantity(source.getQuantity());
         
-        return productRepository.save(product);
+        // Only replace the image when the caller supplied a new one
+        if (source.getImageHash() != null) {
+            target.setImageHash(source.getImageHash());
+            target.setImageType(source.getImageType());
+            target.setImageSize(source.getImageSize());
+        }
+    }
+    
+    @Override
+    public ProductSummary updateProductImage(Long id, StagedImage image) {
+        String hash;
+        try {
+            hash = imageStore.put(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (productRepository.updateImage(id, hash, image.getMimeType(), image.getSize()) == 0) {
+            throw new ProductNotFoundException(id);
+        }
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(List.of(id)));
+        thumbnailService.pregenerate(hash);
+        return productRepository.findSummaryById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
     }
     
     @Override
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+                .orElseThrow(() -> new ProductNotFoundException(id));
         productRepository.delete(product);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 }
@@ -0,0 +1,148 @@
+package com.leon.brewbuybackendjavaproject.Service.impl;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Service.InventoryService;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reserves stock with one conditional UPDATE per product rather than reading the
+ * product and saving it back, so concurrent checkouts never oversell and only hold
+ * a row lock for as long as their own transaction. The default inventory mode;
+ * see InMemoryInventoryService for the alternative.
+ */
+@Service
+@ConditionalOnProperty(name = "brewbuy.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class InventoryServiceImpl implements InventoryService {
+    
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveStock(List<OrderItem> items) {
+        // One row per product, in id order, so two orders always lock shared rows in
+        // the same order and cannot deadlock each other
+        Map<Long, Integer> quantities = InventoryService.quantitiesByProduct(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+        
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[] {quantity, id, quantity}));
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+        for (int i = 0; i < counts.length; i++) {
+            // No row matched: unknown product or not enough left. Throwing rolls back the
+            // decrements that did apply along with the rest of the order
+            if (counts[i] == 0) {
+                throw new InsufficientStockException((Long) args.get(i)[1], (Integer) args.get(i)[0]);
+            }
+        }
+        
+        invalidateAfterCommit(new ArrayList<>(quantities.keySet()));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean[] reserveEach(List<List<OrderItem>> orders) {
+        List<Map<Long, Integer>> wanted = new ArrayList<>(orders.size());
+        Set<Long> ids = new TreeSet<>();
+        for (List<OrderItem> items : orders) {
+            Map<Long, Integer> quantities = InventoryService.quantitiesByProduct(items);
+            wanted.add(quantities);
+            ids.addAll(quantities.keySet());
+        }
+        boolean[] reserved = new boolean[orders.size()];
+        if (ids.isEmpty()) {
+            return reserved;
+        }
+        
+        // Lock every product of the batch once, in id order, and hand the stock out here,
+        // so an order that does not fit never has to be rolled back out of the database
+        Map<Long, Integer> available = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, quantity FROM products WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                row -> {
+                    available.put(row.getLong(1), row.getInt(2));
+                }, ids.toArray());
+        
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (int i = 0; i < wanted.size(); i++) {
+            Map<Long, Integer> quantities = wanted.get(i);
+            boolean fits = !quantities.isEmpty();
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                fits &= available.getOrDefault(entry.getKey(), 0) >= entry.getValue();
+            }
+            if (fits) {
+                quantities.forEach((id, quantity) -> {
+                    available.merge(id, -quantity, Integer::sum);
+                    taken.merge(id, quantity, Integer::sum);
+                });
+                reserved[i] = true;
+            }
+        }
+        if (taken.isEmpty()) {
+            return reserved;
+        }
+        
+        // One decrement per product for the whole batch
+        List<Object[]> args = new ArrayList<>(taken.size());
+        taken.forEach((id, quantity) -> args.add(new Object[] {quantity, id}));
+        jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity - ? WHERE id = ?", args);
+        invalidateAfterCommit(new ArrayList<>(taken.keySet()));
+        return reserved;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseStock(List<OrderItem> items) {
+        Map<Long, Integer> quantities = InventoryService.quantitiesByProduct(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+        
+        // Same id order as reserving, for the same reason
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> args.add(new Object[] {quantity, id}));
+        jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity + ? WHERE id = ?", args);
+        invalidateAfterCommit(new ArrayList<>(quantities.keySet()));
+    }
+    
+    private void invalidateAfterCommit(List<Long> ids) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(productCache::invalidate);
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(ids));
+            }
+        });
+    }
+}
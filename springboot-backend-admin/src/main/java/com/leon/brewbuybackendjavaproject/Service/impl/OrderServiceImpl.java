@@ -2,15 +2,35 @@ package com.leon.brewbuybackendjavaproject.Service.impl;
 
 import com.leon.brewbuybackendjavaproject.Model.Order;
 import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
 import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
 import com.leon.brewbuybackendjavaproject.Repo.OrderItemRepository;
+import com.leon.brewbuybackendjavaproject.Service.InventoryService;
+import com.leon.brewbuybackendjavaproject.Service.OrderPlacement;
+import com.leon.brewbuybackendjavaproject.Service.OrderPricingService;
 import com.leon.brewbuybackendjavaproject.Service.OrderService;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.request.OrderHistoryQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.CursorPage;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import com.leon.brewbuybackendjavaproject.exception.InvalidOrderStatusException;
 import com.leon.brewbuybackendjavaproject.exception.OrderNotFoundException;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import com.leon.brewbuybackendjavaproject.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -21,30 +41,87 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private OrderPricingService orderPricingService;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
     @Override
+    @Transactional
     public Order createOrder(Long userId, List<OrderItem> orderItems) {
-        // Calculate total amount
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        for (OrderItem item : orderItems) {
-            totalAmount = totalAmount.add(item.getPrice().multiply(new BigDecimal(item.getQuantity())));
-        }
+        // Prices come from the catalog, whatever the client sent
+        BigDecimal totalAmount = orderPricingService.price(orderItems);
         
-        // Create order
-        Order order = new Order(userId, totalAmount, "PENDING");
-        Order savedOrder = orderRepository.save(order);
+        // Take the stock; an InsufficientStockException rolls the whole order back
+        inventoryService.reserveStock(orderItems);
         
-        // Save order items
+        // Create order; the items go out with it as one batched insert on flush
+        Order order = new Order(userId, totalAmount, OrderStatus.PENDING);
         for (OrderItem item : orderItems) {
-            item.setOrder(savedOrder);
-            orderItemRepository.save(item);
+            item.setOrder(order);
+        }
+        order.setOrderItems(orderItems);
+        Order saved = orderRepository.save(order);
+        salesRollupService.ordersCreated(List.of(saved));
+        return saved;
+    }
+    
+    /**
+     * Places many orders in one transaction, each all or nothing: an order with a
+     * bad line or not enough stock is rejected on its placement and the others go
+     * ahead. Stock for all of them is taken in one go and the orders and items are
+     * inserted in JDBC batches, so the cost per order is far below createOrder's.
+     */
+    @Override
+    @Transactional
+    public void createOrders(List<OrderPlacement> placements) {
+        List<OrderPlacement> priced = new ArrayList<>(placements.size());
+        List<List<OrderItem>> carts = new ArrayList<>(placements.size());
+        List<BigDecimal> totals = new ArrayList<>(placements.size());
+        for (OrderPlacement placement : placements) {
+            try {
+                totals.add(orderPricingService.price(placement.getItems()));
+                priced.add(placement);
+                carts.add(placement.getItems());
+            } catch (InsufficientStockException e) {
+                placement.reject(OrderPlacement.Outcome.OUT_OF_STOCK, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                placement.reject(OrderPlacement.Outcome.INVALID, e.getMessage());
+            }
+        }
+        if (priced.isEmpty()) {
+            return;
+        }
+        
+        boolean[] reserved = inventoryService.reserveEach(carts);
+        List<Order> orders = new ArrayList<>(priced.size());
+        for (int i = 0; i < priced.size(); i++) {
+            OrderPlacement placement = priced.get(i);
+            if (!reserved[i]) {
+                placement.reject(OrderPlacement.Outcome.OUT_OF_STOCK, "Insufficient stock");
+                continue;
+            }
+            Order order = new Order(placement.getUserId(), totals.get(i), OrderStatus.PENDING);
+            for (OrderItem item : placement.getItems()) {
+                item.setOrder(order);
+            }
+            order.setOrderItems(placement.getItems());
+            orders.add(order);
+            placement.created(order);
         }
         
-        return savedOrder;
+        // Ids come from the pooled sequences, so the inserts wait for the flush and go out batched
+        orderRepository.saveAll(orders);
+        salesRollupService.ordersCreated(orders);
     }
     
     @Override
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
     }
     
@@ -60,17 +137,109 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
-    public Order updateOrderStatus(Long id, Long userId, String status) {
-        // Verify the order belongs to the user
+    public CursorPage<Order> getOrderHistory(OrderHistoryQuery query, String cursor) {
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                query.setAfterCreatedAt(LocalDateTime.parse(parts[0]));
+                query.setAfterId(Long.valueOf(parts[1]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+        
+        // Fetch one extra id to learn whether another page exists
+        int limit = query.getLimit();
+        query.setLimit(limit + 1);
+        List<Long> ids = orderRepository.findHistoryPageIds(query);
+        boolean more = ids.size() > limit;
+        if (more) {
+            ids = ids.subList(0, limit);
+        }
+        if (ids.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        // Second query loads the page with its items, then back into the page's order
+        Map<Long, Order> loaded = orderRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<Order> page = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            page.add(loaded.get(id));
+        }
+        
+        String nextCursor = null;
+        if (more) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(page, nextCursor);
+    }
+    
+    @Override
+    public CursorPage<OrderSummaryResponse> searchOrders(AdminOrderSearchQuery query, String cursor) {
+        if (query.getMinAmount() != null && query.getMaxAmount() != null
+                && query.getMinAmount().compareTo(query.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("minAmount must not be above maxAmount");
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                query.setAfterCreatedAt(LocalDateTime.parse(parts[0]));
+                query.setAfterId(Long.valueOf(parts[1]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+        
+        // Fetch one extra row to learn whether another page exists; the rows are the page, no second query
+        int limit = query.getLimit();
+        query.setLimit(limit + 1);
+        List<OrderSummaryResponse> page = orderRepository.searchOrders(query);
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            OrderSummaryResponse last = page.get(limit - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt().toString(), String.valueOf(last.getId()));
+        }
+        return new CursorPage<>(page, nextCursor);
+    }
+    
+    @Override
+    @Transactional
+    public Order updateOrderStatus(Long id, Long userId, OrderStatus status) {
+        // A conditional UPDATE both checks ownership and the transition and applies it. One per
+        // source status, so the one that matched tells the sales rollups where the order came from
+        OrderStatus from = null;
+        for (OrderStatus source : status.allowedFrom()) {
+            if (orderRepository.transitionStatus(id, userId, Set.of(source), status, LocalDateTime.now()) > 0) {
+                from = source;
+                break;
+            }
+        }
+        
+        // Either way the order is read back: the updated order for the response, or the reason it failed
         Order order = getOrderByIdAndUserId(id, userId);
-        order.setStatus(status);
-        return orderRepository.save(order);
+        if (from == null) {
+            throw new InvalidOrderStatusException(id, order.getStatus(), status);
+        }
+        if (status == OrderStatus.CANCELLED) {
+            inventoryService.releaseStock(order.getOrderItems());
+        }
+        salesRollupService.statusChanged(order, from);
+        return order;
     }
     
     @Override
+    @Transactional
     public void deleteOrder(Long id, Long userId) {
-        // Verify the order belongs to the user
-        getOrderByIdAndUserId(id, userId);
-        orderRepository.deleteById(id);
+        // Verify the order belongs to the user; the loaded items are removed with it
+        Order order = getOrderByIdAndUserId(id, userId);
+        // A cancellation racing this bumps the version, so the delete and this release roll back
+        if (order.getStatus() != null && order.getStatus().holdsStock()) {
+            inventoryService.releaseStock(order.getOrderItems());
+        }
+        orderRepository.delete(order);
+        salesRollupService.orderDeleted(order);
     }
 }
\ No newline at end of file
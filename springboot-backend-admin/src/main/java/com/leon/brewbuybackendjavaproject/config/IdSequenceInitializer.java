@@ -0,0 +1,63 @@
+package com.leon.brewbuybackendjavaproject.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Products, orders and order items used to take IDENTITY ids. Their pooled
+ * sequences start at 1 when Hibernate first creates them, so before anything
+ * is inserted each sequence is moved past the ids already in its table.
+ * On MySQL a sequence is a one-row table with a next_val column.
+ */
+@Component
+public class IdSequenceInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+    
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+    
+    // sequence -> table it hands out ids for
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "products",
+            "order_seq", "orders",
+            "order_item_seq", "order_items");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Depending on the EntityManagerFactory makes this run after the schema update
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+                if (maxId == null) {
+                    return;
+                }
+                // The pooled optimizer hands out the block ending at the value it reads,
+                // so the stored value has to clear the existing ids by a whole block
+                long floor = maxId + ALLOCATION_SIZE + 1;
+                int updated = jdbcTemplate.update(
+                        "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", floor, floor);
+                if (updated > 0) {
+                    log.info("Moved {} to {} past existing ids in {}", sequence, floor, table);
+                }
+            } catch (BadSqlGrammarException e) {
+                // Native sequences (not table emulated) are left to the database
+                log.debug("Not aligning {}: {}", sequence, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.leon.brewbuybackendjavaproject.dto;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One order item joined with its order for exports; the item columns are null for an order without items
+public class OrderExportRow {
+    private final Long orderId;
+    private final Long userId;
+    private final BigDecimal totalAmount;
+    private final OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final Long itemId;
+    private final Long productId;
+    private final Integer quantity;
+    private final BigDecimal price;
+    
+    public OrderExportRow(Long orderId, Long userId, BigDecimal totalAmount, OrderStatus status,
+                          LocalDateTime createdAt, LocalDateTime updatedAt,
+                          Long itemId, Long productId, Integer quantity, BigDecimal price) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.totalAmount = totalAmount;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.itemId = itemId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.price = price;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public Long getItemId() {
+        return itemId;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,37 @@
+package com.leon.brewbuybackendjavaproject.dto;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// An order's id and current status, with what the sales rollups need, read without loading the order or its items
+public class OrderStatusRow {
+    private final Long id;
+    private final OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final BigDecimal totalAmount;
+    
+    public OrderStatusRow(Long id, OrderStatus status, LocalDateTime createdAt, BigDecimal totalAmount) {
+        this.id = id;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.totalAmount = totalAmount;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+}
@@ -0,0 +1,98 @@
+package com.leon.brewbuybackendjavaproject.dto;
+
+import java.math.BigDecimal;
+
+// Lightweight view of a product for lists, built directly by JPQL
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Integer quantity;
+    private String imageType;
+    private String imageHash;
+    private Long imageSize;
+    
+    public ProductSummary() {}
+    
+    public ProductSummary(Long id, String name, String description, BigDecimal price, Integer quantity,
+                          String imageType, String imageHash, Long imageSize) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.quantity = quantity;
+        this.imageType = imageType;
+        this.imageHash = imageHash;
+        this.imageSize = imageSize;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public String getImageType() {
+        return imageType;
+    }
+    
+    public void setImageType(String imageType) {
+        this.imageType = imageType;
+    }
+    
+    public String getImageHash() {
+        return imageHash;
+    }
+    
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+    
+    public Long getImageSize() {
+        return imageSize;
+    }
+    
+    public void setImageSize(Long imageSize) {
+        this.imageSize = imageSize;
+    }
+    
+    public boolean isHasImage() {
+        return imageHash != null;
+    }
+}
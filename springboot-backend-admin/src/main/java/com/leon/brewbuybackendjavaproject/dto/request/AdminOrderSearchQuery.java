@@ -0,0 +1,106 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Every filter is optional; orders must match all that are set
+public class AdminOrderSearchQuery {
+    private OrderStatus status;
+    private Long userId;
+    private LocalDateTime from;     // inclusive
+    private LocalDateTime to;       // exclusive
+    private BigDecimal minAmount;   // inclusive
+    private BigDecimal maxAmount;   // inclusive
+    private Long productId;         // orders with at least one item of the product
+    private int limit;
+    
+    // Seek position taken from the cursor: orders strictly older than (afterCreatedAt, afterId)
+    private LocalDateTime afterCreatedAt;
+    private Long afterId;
+    
+    // Constructors
+    public AdminOrderSearchQuery() {}
+    
+    // Getters and Setters
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+    
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+    
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+    
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+    
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+    
+    public LocalDateTime getAfterCreatedAt() {
+        return afterCreatedAt;
+    }
+    
+    public void setAfterCreatedAt(LocalDateTime afterCreatedAt) {
+        this.afterCreatedAt = afterCreatedAt;
+    }
+    
+    public Long getAfterId() {
+        return afterId;
+    }
+    
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+import java.util.List;
+
+public class BatchOrderRequest {
+    private List<CreateOrderRequest> orders;
+    
+    // Constructors
+    public BatchOrderRequest() {}
+    
+    public BatchOrderRequest(List<CreateOrderRequest> orders) {
+        this.orders = orders;
+    }
+    
+    // Getters and Setters
+    public List<CreateOrderRequest> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<CreateOrderRequest> orders) {
+        this.orders = orders;
+    }
+}
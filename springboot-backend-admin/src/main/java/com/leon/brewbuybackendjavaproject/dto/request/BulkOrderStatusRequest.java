@@ -0,0 +1,77 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Either orderIds, or a filter over the remaining fields; the filter only ever selects orders that can make the move
+public class BulkOrderStatusRequest {
+    private OrderStatus status;        // target status
+    private List<Long> orderIds;       // explicit orders; the filter fields are ignored when set
+    private OrderStatus currentStatus; // narrows the filter to one of the allowed source statuses
+    private Long userId;
+    private LocalDateTime createdFrom; // inclusive
+    private LocalDateTime createdTo;   // exclusive
+    private boolean all;               // confirms a filter with none of the fields above, over every order
+    
+    // Constructors
+    public BulkOrderStatusRequest() {}
+    
+    // Getters and Setters
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+    
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+    
+    public OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+    
+    public void setCurrentStatus(OrderStatus currentStatus) {
+        this.currentStatus = currentStatus;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+    
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+    
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+    
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+    
+    public boolean isAll() {
+        return all;
+    }
+    
+    public void setAll(boolean all) {
+        this.all = all;
+    }
+}
@@ -0,0 +1,77 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+public class OrderHistoryQuery {
+    private Long userId;
+    private OrderStatus status;
+    private LocalDateTime from;     // inclusive
+    private LocalDateTime to;       // exclusive
+    private int limit;
+    
+    // Seek position taken from the cursor: orders strictly older than (afterCreatedAt, afterId)
+    private LocalDateTime afterCreatedAt;
+    private Long afterId;
+    
+    // Constructors
+    public OrderHistoryQuery() {}
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+    
+    public LocalDateTime getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+    
+    public LocalDateTime getAfterCreatedAt() {
+        return afterCreatedAt;
+    }
+    
+    public void setAfterCreatedAt(LocalDateTime afterCreatedAt) {
+        this.afterCreatedAt = afterCreatedAt;
+    }
+    
+    public Long getAfterId() {
+        return afterId;
+    }
+    
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+}
@@ -0,0 +1,14 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+// One line of an NDJSON or CSV catalog import; rows with an id update that product
+public class ProductImportRow extends ProductRequest {
+    private Long id;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,93 @@
+package com.leon.brewbuybackendjavaproject.dto.request;
+
+import java.math.BigDecimal;
+
+public class ProductPageQuery {
+    private String sort = "id";     // "id", "name" or "price"
+    private boolean descending;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minQuantity;
+    private String namePrefix;
+    private int limit;
+    
+    // Seek position taken from the cursor: rows strictly after (afterKey, afterId)
+    private Object afterKey;
+    private Long afterId;
+    
+    // Constructors
+    public ProductPageQuery() {}
+    
+    // Getters and Setters
+    public String getSort() {
+        return sort;
+    }
+    
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+    
+    public boolean isDescending() {
+        return descending;
+    }
+    
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+    
+    public void setMinQuantity(Integer minQuantity) {
+        this.minQuantity = minQuantity;
+    }
+    
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+    
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+    
+    public Object getAfterKey() {
+        return afterKey;
+    }
+    
+    public void setAfterKey(Object afterKey) {
+        this.afterKey = afterKey;
+    }
+    
+    public Long getAfterId() {
+        return afterId;
+    }
+    
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+}
@@ -0,0 +1,100 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+import com.leon.brewbuybackendjavaproject.Service.OrderPlacement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchOrderResponse {
+    private int created;
+    private int rejected;
+    private List<Result> results = new ArrayList<>(); // one per submitted order, in request order
+    
+    public static class Result {
+        private int index;
+        private OrderPlacement.Outcome outcome;
+        private OrderResponse order; // when CREATED
+        private String error;        // otherwise
+        
+        public Result() {}
+        
+        public Result(int index, OrderPlacement placement) {
+            this.index = index;
+            this.outcome = placement.getOutcome();
+            this.order = placement.getOrder() != null ? new OrderResponse(placement.getOrder()) : null;
+            this.error = placement.getError();
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public void setIndex(int index) {
+            this.index = index;
+        }
+        
+        public OrderPlacement.Outcome getOutcome() {
+            return outcome;
+        }
+        
+        public void setOutcome(OrderPlacement.Outcome outcome) {
+            this.outcome = outcome;
+        }
+        
+        public OrderResponse getOrder() {
+            return order;
+        }
+        
+        public void setOrder(OrderResponse order) {
+            this.order = order;
+        }
+        
+        public String getError() {
+            return error;
+        }
+        
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+    
+    // Constructors
+    public BatchOrderResponse() {}
+    
+    public BatchOrderResponse(List<OrderPlacement> placements) {
+        for (int i = 0; i < placements.size(); i++) {
+            Result result = new Result(i, placements.get(i));
+            if (result.getOutcome() == OrderPlacement.Outcome.CREATED) {
+                created++;
+            } else {
+                rejected++;
+            }
+            results.add(result);
+        }
+    }
+    
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<Result> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<Result> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,55 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BulkOrderStatusResponse {
+    private OrderStatus status;
+    private List<Long> updated = new ArrayList<>();                  // moved to status
+    private List<Long> notFound = new ArrayList<>();                 // no such order
+    private Map<Long, OrderStatus> rejected = new LinkedHashMap<>(); // status each was in, which cannot move to status
+    
+    // Constructors
+    public BulkOrderStatusResponse() {}
+    
+    public BulkOrderStatusResponse(OrderStatus status) {
+        this.status = status;
+    }
+    
+    // Getters and Setters
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+    
+    public List<Long> getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(List<Long> updated) {
+        this.updated = updated;
+    }
+    
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(List<Long> notFound) {
+        this.notFound = notFound;
+    }
+    
+    public Map<Long, OrderStatus> getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(Map<Long, OrderStatus> rejected) {
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,92 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+public class CacheStatsResponse {
+    private boolean enabled;
+    private long size;
+    private long weightedSize;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadCount;
+    private long evictionCount;
+    
+    // Constructors
+    public CacheStatsResponse() {}
+    
+    public CacheStatsResponse(boolean enabled, long size, long weightedSize, long hitCount, long missCount,
+                              double hitRate, long loadCount, long evictionCount) {
+        this.enabled = enabled;
+        this.size = size;
+        this.weightedSize = weightedSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.hitRate = hitRate;
+        this.loadCount = loadCount;
+        this.evictionCount = evictionCount;
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+    
+    public void setWeightedSize(long weightedSize) {
+        this.weightedSize = weightedSize;
+    }
+    
+    public long getHitCount() {
+        return hitCount;
+    }
+    
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+    
+    public long getMissCount() {
+        return missCount;
+    }
+    
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+    
+    public double getHitRate() {
+        return hitRate;
+    }
+    
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+    
+    public long getLoadCount() {
+        return loadCount;
+    }
+    
+    public void setLoadCount(long loadCount) {
+        this.loadCount = loadCount;
+    }
+    
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+    
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+}
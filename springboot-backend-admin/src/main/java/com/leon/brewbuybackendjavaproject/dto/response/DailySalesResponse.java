@@ -0,0 +1,74 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class DailySalesResponse {
+    private LocalDate date;
+    // Orders and revenue leave out cancelled orders; the per-status maps have them all
+    private long orders;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private Map<OrderStatus, BigDecimal> revenueByStatus = new EnumMap<>(OrderStatus.class);
+    
+    // Constructors
+    public DailySalesResponse() {}
+    
+    public DailySalesResponse(LocalDate date) {
+        this.date = date;
+    }
+    
+    public void add(OrderStatus status, long orderCount, BigDecimal amount) {
+        ordersByStatus.merge(status, orderCount, Long::sum);
+        revenueByStatus.merge(status, amount, BigDecimal::add);
+        if (status != OrderStatus.CANCELLED) {
+            orders += orderCount;
+            revenue = revenue.add(amount);
+        }
+    }
+    
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public long getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public Map<OrderStatus, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+    
+    public void setOrdersByStatus(Map<OrderStatus, Long> ordersByStatus) {
+        this.ordersByStatus = ordersByStatus;
+    }
+    
+    public Map<OrderStatus, BigDecimal> getRevenueByStatus() {
+        return revenueByStatus;
+    }
+    
+    public void setRevenueByStatus(Map<OrderStatus, BigDecimal> revenueByStatus) {
+        this.revenueByStatus = revenueByStatus;
+    }
+}
@@ -24,7 +24,7 @@ public class OrderResponse {
         this.id = order.getId();
         this.userId = order.getUserId();
         this.totalAmount = order.getTotalAmount();
-        this.status = order.getStatus();
+        this.status = order.getStatus().name();
         this.createdAt = order.getCreatedAt();
         this.updatedAt = order.getUpdatedAt();
         
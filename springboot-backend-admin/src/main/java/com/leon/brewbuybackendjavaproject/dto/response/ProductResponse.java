@@ -1,6 +1,7 @@
 package com.leon.brewbuybackendjavaproject.dto.response;
 
 import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
 
 import java.math.BigDecimal;
 import java.util.Base64;
@@ -13,11 +14,17 @@ public class ProductResponse {
     private Integer quantity;
     private String imageBase64; // Base64 encoded image data
     private String imageType;   // MIME type of the image
+    private String imageHash;   // SHA-256 of the image bytes, also used as its ETag
+    private String imageUrl;    // Path of the binary image endpoint
     
     // Constructors
     public ProductResponse() {}
     
     public ProductResponse(Product product) {
+        this(product, null);
+    }
+    
+    public ProductResponse(Product product, byte[] inlineImage) {
         this.id = product.getId();
         this.name = product.getName();
         this.description = product.getDescription();
@@ -25,12 +32,36 @@ public class ProductResponse {
         this.quantity = product.getQuantity();
         this.imageType = product.getImageType();
         
-        // Convert image data to Base64 if it exists
-        if (product.getImageData() != null && product.getImageData().length > 0) {
-            this.imageBase64 = Base64.getEncoder().encodeToString(product.getImageData());
+        if (product.getImageHash() != null) {
+            this.imageHash = product.getImageHash();
+            this.imageUrl = imageUrl(product.getId(), product.getImageHash());
+            // Image bytes are only embedded when the caller loaded them from the image store
+            if (inlineImage != null) {
+                this.imageBase64 = Base64.getEncoder().encodeToString(inlineImage);
+            }
+        }
+    }
+    
+    public ProductResponse(ProductSummary summary) {
+        this.id = summary.getId();
+        this.name = summary.getName();
+        this.description = summary.getDescription();
+        this.price = summary.getPrice();
+        this.quantity = summary.getQuantity();
+        this.imageType = summary.getImageType();
+        
+        // Summaries never carry the bytes, so the image is always referenced by URL
+        if (summary.isHasImage()) {
+            this.imageHash = summary.getImageHash();
+            this.imageUrl = imageUrl(summary.getId(), summary.getImageHash());
         }
     }
     
+    public static String imageUrl(Long productId, String imageHash) {
+        // The hash acts as a cache buster so clients can cache the URL forever
+        return "/api/products/" + productId + "/image" + (imageHash != null ? "?v=" + imageHash : "");
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -87,4 +118,20 @@ public class ProductResponse {
     public void setImageType(String imageType) {
         this.imageType = imageType;
     }
+    
+    public String getImageHash() {
+        return imageHash;
+    }
+    
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+    
+    public String getImageUrl() {
+        return imageUrl;
+    }
+    
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
 }
\ No newline at end of file
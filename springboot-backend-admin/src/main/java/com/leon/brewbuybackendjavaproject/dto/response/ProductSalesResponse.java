@@ -0,0 +1,53 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+import java.math.BigDecimal;
+
+public class ProductSalesResponse {
+    private Long productId;
+    private String name;
+    private long units;
+    private BigDecimal revenue;
+    
+    // Constructors
+    public ProductSalesResponse() {}
+    
+    public ProductSalesResponse(Long productId, String name, long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.name = name;
+        this.units = units;
+        this.revenue = revenue;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public long getUnits() {
+        return units;
+    }
+    
+    public void setUnits(long units) {
+        this.units = units;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,41 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+public class ProductSuggestion {
+    private Long id;
+    private String name;
+    private Integer quantity;
+    
+    // Constructors
+    public ProductSuggestion() {}
+    
+    public ProductSuggestion(Long id, String name, Integer quantity) {
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
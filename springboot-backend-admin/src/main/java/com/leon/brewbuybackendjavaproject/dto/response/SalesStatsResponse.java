@@ -0,0 +1,65 @@
+package com.leon.brewbuybackendjavaproject.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SalesStatsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    // Totals of the range, cancelled orders left out
+    private long orders;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    // Every day of the range, empty days included
+    private List<DailySalesResponse> days = new ArrayList<>();
+    
+    // Constructors
+    public SalesStatsResponse() {}
+    
+    public SalesStatsResponse(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+    
+    // Getters and Setters
+    public LocalDate getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+    
+    public LocalDate getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+    
+    public long getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public List<DailySalesResponse> getDays() {
+        return days;
+    }
+    
+    public void setDays(List<DailySalesResponse> days) {
+        this.days = days;
+    }
+}
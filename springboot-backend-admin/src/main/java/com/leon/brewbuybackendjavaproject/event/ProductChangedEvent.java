@@ -0,0 +1,46 @@
+package com.leon.brewbuybackendjavaproject.event;
+
+import java.util.List;
+
+// Published by ProductServiceImpl after products were created, updated or deleted,
+// and by the inventory services after orders took stock
+public class ProductChangedEvent {
+    private final List<Long> changedIds;
+    private final List<Long> deletedIds;
+    private final boolean stockOnly;
+    
+    public ProductChangedEvent(List<Long> changedIds, List<Long> deletedIds) {
+        this(changedIds, deletedIds, false);
+    }
+    
+    private ProductChangedEvent(List<Long> changedIds, List<Long> deletedIds, boolean stockOnly) {
+        this.changedIds = List.copyOf(changedIds);
+        this.deletedIds = List.copyOf(deletedIds);
+        this.stockOnly = stockOnly;
+    }
+    
+    public static ProductChangedEvent changed(List<Long> ids) {
+        return new ProductChangedEvent(ids, List.of());
+    }
+    
+    // Only quantity moved, through a reservation rather than an edit of the product
+    public static ProductChangedEvent stockChanged(List<Long> ids) {
+        return new ProductChangedEvent(ids, List.of(), true);
+    }
+    
+    public static ProductChangedEvent deleted(Long id) {
+        return new ProductChangedEvent(List.of(), List.of(id));
+    }
+    
+    public List<Long> getChangedIds() {
+        return changedIds;
+    }
+    
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+    
+    public boolean isStockOnly() {
+        return stockOnly;
+    }
+}
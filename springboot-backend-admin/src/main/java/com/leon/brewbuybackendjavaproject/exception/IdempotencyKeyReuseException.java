@@ -0,0 +1,14 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    private final String idempotencyKey;
+    
+    public IdempotencyKeyReuseException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used for a different order");
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
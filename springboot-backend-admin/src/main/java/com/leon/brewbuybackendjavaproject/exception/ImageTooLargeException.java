@@ -0,0 +1,11 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class ImageTooLargeException extends RuntimeException {
+    public ImageTooLargeException(long maxBytes) {
+        super("Image exceeds the maximum size of " + maxBytes + " bytes");
+    }
+    
+    public ImageTooLargeException(int width, int height, long maxPixels) {
+        super("Image of " + width + "x" + height + " exceeds the maximum of " + maxPixels + " pixels");
+    }
+}
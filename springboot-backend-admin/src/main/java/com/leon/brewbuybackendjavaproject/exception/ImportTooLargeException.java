@@ -0,0 +1,7 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class ImportTooLargeException extends RuntimeException {
+    public ImportTooLargeException(long maxBytes) {
+        super("Import exceeds the maximum size of " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,20 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    private final Long productId;
+    private final int requested;
+    
+    public InsufficientStockException(Long productId, int requested) {
+        super("Insufficient stock for product id: " + productId + " (requested " + requested + ")");
+        this.productId = productId;
+        this.requested = requested;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+}
@@ -0,0 +1,28 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+
+public class InvalidOrderStatusException extends RuntimeException {
+    private final Long orderId;
+    private final OrderStatus current;
+    private final OrderStatus requested;
+    
+    public InvalidOrderStatusException(Long orderId, OrderStatus current, OrderStatus requested) {
+        super("Order " + orderId + " cannot move from " + current + " to " + requested);
+        this.orderId = orderId;
+        this.current = current;
+        this.requested = requested;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public OrderStatus getCurrent() {
+        return current;
+    }
+    
+    public OrderStatus getRequested() {
+        return requested;
+    }
+}
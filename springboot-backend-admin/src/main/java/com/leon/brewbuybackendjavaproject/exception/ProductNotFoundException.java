@@ -0,0 +1,7 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class ProductNotFoundException extends RuntimeException {
+    public ProductNotFoundException(Long id) {
+        super("Product not found with id: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.leon.brewbuybackendjavaproject.exception;
+
+public class UnsupportedImageException extends RuntimeException {
+    public UnsupportedImageException() {
+        super("Image must be a JPEG, PNG, GIF or WebP file");
+    }
+}
@@ -0,0 +1,31 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+// Dimensions read from an image's header alone, so an image whose bitmap would not fit in memory is refused before decoding
+final class ImageHeaders {
+    
+    private ImageHeaders() {}
+    
+    // The first ImageIO reader for the stream, with the stream as its input; null when ImageIO has none for the format
+    static ImageReader reader(ImageInputStream in) {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        return reader;
+    }
+    
+    static boolean exceeds(ImageReader reader, long maxPixels) throws IOException {
+        return (long) reader.getWidth(0) * reader.getHeight(0) > maxPixels;
+    }
+}
@@ -0,0 +1,133 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves images still held in the legacy products.image_data LONGBLOB column
+ * into the ImageStore, a batch of rows at a time, and clears the column.
+ * Talks to the column through JDBC since the entity no longer maps it.
+ */
+@Component
+public class ImageMigrationJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(ImageMigrationJob.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ImageStore imageStore;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${brewbuy.images.migration.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${brewbuy.images.migration.batch-size:50}")
+    private int batchSize;
+    
+    // Set once there is no legacy column or nothing left in it
+    private volatile boolean finished;
+    
+    @Scheduled(initialDelayString = "${brewbuy.images.migration.initial-delay:PT10S}",
+               fixedDelayString = "${brewbuy.images.migration.interval:PT10M}")
+    public void migrateAll() {
+        if (!enabled || finished) {
+            return;
+        }
+        try {
+            long lastId = 0;
+            int migrated = 0;
+            int failed = 0;
+            List<Long> ids;
+            do {
+                // Keyset over ids so a row that keeps failing cannot stall the batch loop
+                ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM products WHERE image_data IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                        Long.class, lastId, batchSize);
+                for (Long id : ids) {
+                    lastId = id;
+                    try {
+                        if (migrateProduct(id)) {
+                            migrated++;
+                        }
+                    } catch (RuntimeException e) {
+                        failed++;
+                        log.warn("Could not migrate image of product {}", id, e);
+                    }
+                }
+            } while (ids.size() == batchSize);
+            
+            if (migrated > 0 || failed > 0) {
+                log.info("Migrated {} product images to the image store, {} failed", migrated, failed);
+            }
+            finished = failed == 0;
+        } catch (BadSqlGrammarException e) {
+            // Schemas created after the move never had the image_data column
+            finished = true;
+        }
+    }
+    
+    /**
+     * Migrates a single product, also used on demand when an image is requested
+     * before the background run reached it. Returns false if there was nothing to move.
+     */
+    public boolean migrateProduct(Long id) {
+        if (finished) {
+            return false;
+        }
+        long[] size = new long[1];
+        String hash;
+        try {
+            hash = jdbcTemplate.query(
+                    "SELECT image_data, LENGTH(image_data) FROM products WHERE id = ? AND image_data IS NOT NULL",
+                    rs -> {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        size[0] = rs.getLong(2);
+                        try (InputStream in = rs.getBinaryStream(1)) {
+                            return imageStore.put(in);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, id);
+        } catch (BadSqlGrammarException e) {
+            finished = true;
+            return false;
+        }
+        if (hash == null) {
+            return false;
+        }
+        
+        // Keep an image uploaded since the row was read, only fill in rows that still point at the blob
+        jdbcTemplate.update(
+                "UPDATE products SET image_hash = ?, image_size = ? WHERE id = ? AND (image_hash IS NULL OR image_hash = ?)",
+                hash, size[0], id, hash);
+        jdbcTemplate.update("UPDATE products SET image_data = NULL WHERE id = ?", id);
+        
+        // The cached copy and the catalog snapshot still have no image hash
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.changed(List.of(id)));
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for product images. Images are keyed by the hex
+ * SHA-256 of their bytes, so storing the same bytes twice keeps one copy.
+ */
+public interface ImageStore {
+    
+    // Stores the stream and returns its hash
+    String put(InputStream data) throws IOException;
+    
+    // Takes ownership of an already hashed upload, moving it into the store when possible
+    String put(StagedImage image) throws IOException;
+    
+    boolean exists(String hash);
+    
+    // File-backed stores return resources for which isFile() is true, allowing zero-copy responses
+    Optional<Resource> open(String hash);
+    
+    Optional<byte[]> read(String hash) throws IOException;
+}
@@ -0,0 +1,103 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import com.leon.brewbuybackendjavaproject.exception.ImageTooLargeException;
+import com.leon.brewbuybackendjavaproject.exception.UnsupportedImageException;
+import com.leon.brewbuybackendjavaproject.util.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+@Component
+public class ImageUploadProcessor {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Value("${brewbuy.images.max-size:10MB}")
+    private DataSize maxSize;
+    
+    @Value("${brewbuy.images.max-pixels:40000000}")
+    private long maxPixels;
+    
+    /**
+     * Copies the upload to a temp file through one fixed-size buffer, checking the
+     * magic bytes and size limit and hashing on the way, so memory use does not
+     * depend on the image size. The dimensions in the header are then checked
+     * against the pixel limit, since a small file can claim a huge bitmap that
+     * would exhaust the heap once decoded. The caller must close the returned image.
+     */
+    public StagedImage stage(InputStream in) throws IOException {
+        long maxBytes = maxSize.toBytes();
+        MessageDigest digest = Hashing.sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        
+        ImageFormat format;
+        long total;
+        Path file = Files.createTempFile("brewbuy-upload-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            // Reject anything that is not a known image before spooling the rest
+            int headerLength = in.readNBytes(buffer, 0, ImageFormat.SNIFF_LENGTH);
+            format = ImageFormat.sniff(buffer, headerLength);
+            if (format == null) {
+                throw new UnsupportedImageException();
+            }
+            write(out, digest, buffer, headerLength);
+            
+            total = headerLength;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new ImageTooLargeException(maxBytes);
+                }
+                write(out, digest, buffer, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        try {
+            checkDimensions(file);
+            return new StagedImage(file, format.getMimeType(), HexFormat.of().formatHex(digest.digest()), total);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+    
+    // Formats ImageIO cannot read (WebP) are never decoded here, so they pass
+    private void checkDimensions(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = ImageHeaders.reader(in);
+            if (reader == null) {
+                return;
+            }
+            try {
+                if (ImageHeaders.exceeds(reader, maxPixels)) {
+                    throw new ImageTooLargeException(reader.getWidth(0), reader.getHeight(0), maxPixels);
+                }
+            } catch (IIOException e) {
+                // Magic bytes of a known format but no readable header
+                throw new UnsupportedImageException();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    private static void write(OutputStream out, MessageDigest digest, byte[] buffer, int length) throws IOException {
+        digest.update(buffer, 0, length);
+        out.write(buffer, 0, length);
+    }
+}
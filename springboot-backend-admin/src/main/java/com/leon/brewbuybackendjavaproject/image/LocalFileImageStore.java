@@ -0,0 +1,134 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import com.leon.brewbuybackendjavaproject.util.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps images under {root}/ab/cd/abcd... where ab and cd are the first hash
+ * bytes, so no directory grows past 256 entries per level. Files are written
+ * to {root}/tmp and renamed into place, so readers never see a partial image.
+ */
+@Component
+public class LocalFileImageStore implements ImageStore {
+    
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Path root;
+    private final Path tmp;
+    
+    public LocalFileImageStore(@Value("${brewbuy.images.store.dir:data/images}") String dir) throws IOException {
+        this.root = Paths.get(dir).toAbsolutePath();
+        this.tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+    
+    @Override
+    public String put(InputStream data) throws IOException {
+        MessageDigest digest = Hashing.sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Path temp = Files.createTempFile(tmp, "put-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                int read;
+                while ((read = data.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+                channel.force(true);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            moveIntoPlace(temp, hash);
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    @Override
+    public String put(StagedImage image) throws IOException {
+        if (exists(image.getHash())) {
+            return image.getHash();
+        }
+        // Uploads are usually spooled on the same file system, making this a rename;
+        // otherwise copy into our own temp dir first so the final step stays atomic
+        Path temp = Files.createTempFile(tmp, "put-", ".tmp");
+        try {
+            Files.move(image.getFile(), temp, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            moveIntoPlace(temp, image.getHash());
+            return image.getHash();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    @Override
+    public boolean exists(String hash) {
+        return isHash(hash) && Files.isRegularFile(pathFor(hash));
+    }
+    
+    @Override
+    public Optional<Resource> open(String hash) {
+        if (!exists(hash)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(pathFor(hash)));
+    }
+    
+    @Override
+    public Optional<byte[]> read(String hash) throws IOException {
+        if (!exists(hash)) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.readAllBytes(pathFor(hash)));
+    }
+    
+    private void moveIntoPlace(Path temp, String hash) throws IOException {
+        Path target = pathFor(hash);
+        if (Files.exists(target)) {
+            // Same bytes are already stored
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Lost a race with a concurrent writer of the same content
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target);
+        }
+    }
+    
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+    
+    private static boolean isHash(String hash) {
+        // Hashes end up in file paths, so never accept anything else
+        return hash != null && HASH.matcher(hash).matches();
+    }
+}
@@ -0,0 +1,22 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import java.nio.file.Path;
+
+// A derived, downscaled copy of a stored image
+public class Rendition {
+    private final Path file;
+    private final String mimeType;
+    
+    public Rendition(Path file, String mimeType) {
+        this.file = file;
+        this.mimeType = mimeType;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+}
@@ -0,0 +1,41 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// An uploaded image that has been validated and spooled to a temp file, ready to be persisted
+public class StagedImage implements AutoCloseable {
+    private final Path file;
+    private final String mimeType;
+    private final String hash;
+    private final long size;
+    
+    public StagedImage(Path file, String mimeType, String hash, long size) {
+        this.file = file;
+        this.mimeType = mimeType;
+        this.hash = hash;
+        this.size = size;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public String getHash() {
+        return hash;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,311 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Renders downscaled copies of stored images with plain ImageIO and keeps them
+ * in a size-bounded LRU cache on disk. Renditions are made on a small bounded
+ * pool, either ahead of time after an upload or on first request; concurrent
+ * requests for the same rendition share one render.
+ */
+@Service
+public class ThumbnailService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+    private static final int MAX_USE_ORIGINAL = 10_000;
+    
+    private final ImageStore imageStore;
+    private final List<Integer> sizes;
+    private final long maxPixels;
+    private final long maxCacheBytes;
+    private final Path cacheDir;
+    private final ThreadPoolExecutor executor;
+    
+    // Access-ordered, so iteration starts at the least recently used rendition
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+    
+    private final Map<String, CompletableFuture<Optional<Rendition>>> inFlight = new ConcurrentHashMap<>();
+    
+    // Renditions that resolve to the original, remembered so they are not decoded on every request
+    private final Set<String> useOriginal = ConcurrentHashMap.newKeySet();
+    
+    public ThumbnailService(ImageStore imageStore,
+                            @Value("${brewbuy.images.thumbnails.sizes:64,256,1024}") List<Integer> sizes,
+                            @Value("${brewbuy.images.thumbnails.dir:data/thumbnails}") String dir,
+                            @Value("${brewbuy.images.thumbnails.max-cache-size:512MB}") DataSize maxCacheSize,
+                            @Value("${brewbuy.images.thumbnails.workers:2}") int workers,
+                            @Value("${brewbuy.images.thumbnails.queue-size:100}") int queueSize,
+                            @Value("${brewbuy.images.max-pixels:40000000}") long maxPixels) throws IOException {
+        this.imageStore = imageStore;
+        this.sizes = List.copyOf(sizes);
+        this.maxPixels = maxPixels;
+        this.maxCacheBytes = maxCacheSize.toBytes();
+        this.cacheDir = Paths.get(dir).toAbsolutePath();
+        Files.createDirectories(cacheDir);
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        loadExistingEntries();
+    }
+    
+    public boolean isSupportedSize(int size) {
+        return sizes.contains(size);
+    }
+    
+    /**
+     * Returns the rendition of the image at the given size, rendering it if needed.
+     * Empty when the image cannot be decoded by ImageIO or is already small enough,
+     * in which case callers serve the original.
+     */
+    public Optional<Rendition> get(String hash, int size) {
+        String key = key(hash, size);
+        if (useOriginal.contains(key)) {
+            return Optional.empty();
+        }
+        Optional<Rendition> cached = lookup(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        try {
+            CompletableFuture<Optional<Rendition>> render = submit(hash, size);
+            return render.get(10, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException | TimeoutException | ExecutionException e) {
+            // Pool saturated or render failed; the original is still a valid answer
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+    
+    // Queues every configured size for a freshly uploaded image; skipped if the pool is busy
+    public void pregenerate(String hash) {
+        for (int size : sizes) {
+            if (lookup(key(hash, size)).isPresent()) {
+                continue;
+            }
+            try {
+                submit(hash, size);
+            } catch (RejectedExecutionException e) {
+                // Will be rendered on first request instead
+                return;
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private CompletableFuture<Optional<Rendition>> submit(String hash, int size) {
+        String key = key(hash, size);
+        CompletableFuture<Optional<Rendition>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<Rendition>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(render(hash, size));
+                } catch (Exception e) {
+                    log.warn("Could not render {}px thumbnail of image {}", size, hash, e);
+                    created.complete(Optional.empty());
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            throw e;
+        }
+        return created;
+    }
+    
+    private Optional<Rendition> render(String hash, int size) throws IOException {
+        Optional<Resource> original = imageStore.open(hash);
+        if (original.isEmpty()) {
+            return Optional.empty();
+        }
+        BufferedImage source = null;
+        try (InputStream raw = original.get().getInputStream();
+             ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+            ImageReader reader = ImageHeaders.reader(in);
+            if (reader != null) {
+                try {
+                    // The header is checked before decoding: a few bytes can claim a bitmap bigger than the heap
+                    if (ImageHeaders.exceeds(reader, maxPixels)) {
+                        log.warn("Not rendering image {}: {}x{} is above {} pixels",
+                                hash, reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    } else {
+                        source = reader.read(0);
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        if (source == null || (source.getWidth() <= size && source.getHeight() <= size)) {
+            // No ImageIO reader for the format (e.g. WebP), too many pixels, or nothing to shrink
+            if (useOriginal.size() >= MAX_USE_ORIGINAL) {
+                useOriginal.clear();
+            }
+            useOriginal.add(key(hash, size));
+            return Optional.empty();
+        }
+        
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage scaled = scale(source, size, alpha);
+        String format = alpha ? "png" : "jpg";
+        
+        Path target = cacheDir.resolve(key(hash, size) + "." + format);
+        Path temp = Files.createTempFile(cacheDir, "render-", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, format, temp.toFile())) {
+                return Optional.empty();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        
+        add(key(hash, size), Files.size(target));
+        return Optional.of(new Rendition(target, mimeType(format)));
+    }
+    
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        double ratio = Math.min((double) size / source.getWidth(), (double) size / source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        
+        // Halve in steps first; a single bilinear pass from a much larger image looks grainy
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+    
+    private synchronized Optional<Rendition> lookup(String key) {
+        if (entries.get(key) == null) {
+            return Optional.empty();
+        }
+        for (String format : new String[] {"jpg", "png"}) {
+            Path file = cacheDir.resolve(key + "." + format);
+            if (Files.isRegularFile(file)) {
+                return Optional.of(new Rendition(file, mimeType(format)));
+            }
+        }
+        // Deleted behind our back
+        cachedBytes -= entries.remove(key);
+        return Optional.empty();
+    }
+    
+    private synchronized void add(String key, long bytes) {
+        Long previous = entries.put(key, bytes);
+        cachedBytes += bytes - (previous != null ? previous : 0);
+        
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            eldest.remove();
+            cachedBytes -= entry.getValue();
+            deleteQuietly(entry.getKey());
+        }
+    }
+    
+    private void loadExistingEntries() throws IOException {
+        // Rebuild the LRU order from modification times so the cache survives restarts
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(file -> file.getFileName().toString().matches("[0-9a-f]{64}-\\d+\\.(jpg|png)"))
+                    .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        add(name.substring(0, name.lastIndexOf('.')), file.toFile().length());
+                    });
+        }
+    }
+    
+    private void deleteQuietly(String key) {
+        for (String format : new String[] {"jpg", "png"}) {
+            try {
+                Files.deleteIfExists(cacheDir.resolve(key + "." + format));
+            } catch (IOException e) {
+                log.warn("Could not delete cached thumbnail {}", key, e);
+            }
+        }
+    }
+    
+    private static String key(String hash, int size) {
+        return hash + "-" + size;
+    }
+    
+    private static String mimeType(String format) {
+        return "png".equals(format) ? "image/png" : "image/jpeg";
+    }
+}
@@ -0,0 +1,144 @@
+package com.leon.brewbuybackendjavaproject.intake;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only segment of accepted orders. A record is its length, the order
+ * (handle, user, submit time and product/quantity pairs) and a CRC32 of it, so a
+ * record cut short or left half-written by a crash is recognised and dropped.
+ * Segments are numbered and deleted once every order in them has been placed.
+ */
+final class OrderIntakeJournal implements AutoCloseable {
+    
+    private static final int HEADER_SIZE = 4 * Long.BYTES + Integer.BYTES;
+    private static final int LINE_SIZE = Long.BYTES + Integer.BYTES;
+    private static final Pattern FILE_NAME = Pattern.compile("intake-(\\d+)\\.journal");
+    
+    private final long segment;
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean sync;
+    private long size;
+    
+    private OrderIntakeJournal(long segment, Path file, FileChannel channel, boolean sync) {
+        this.segment = segment;
+        this.file = file;
+        this.channel = channel;
+        this.sync = sync;
+    }
+    
+    static OrderIntakeJournal create(Path dir, long segment, boolean sync) throws IOException {
+        Path file = dir.resolve("intake-" + segment + ".journal");
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new OrderIntakeJournal(segment, file, channel, sync);
+    }
+    
+    long getSegment() {
+        return segment;
+    }
+    
+    long size() {
+        return size;
+    }
+    
+    void append(PendingOrder order) throws IOException {
+        int length = HEADER_SIZE + order.productIds.length * LINE_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length + Integer.BYTES);
+        UUID handle = UUID.fromString(order.handle);
+        buffer.putInt(length)
+                .putLong(handle.getMostSignificantBits())
+                .putLong(handle.getLeastSignificantBits())
+                .putLong(order.userId)
+                .putLong(order.submittedAt.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .putInt(order.productIds.length);
+        for (int i = 0; i < order.productIds.length; i++) {
+            buffer.putLong(order.productIds[i]).putInt(order.quantities[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, length);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+        size += buffer.limit();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    // Segments left in dir, oldest first
+    static List<Long> listSegments(Path dir) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        segments.sort(null);
+        return segments;
+    }
+    
+    // The orders in a segment, in the order they were accepted; reading stops at the first damaged record
+    static List<PendingOrder> read(Path dir, long segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("intake-" + segment + ".journal")));
+        List<PendingOrder> orders = new ArrayList<>();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < HEADER_SIZE || (length - HEADER_SIZE) % LINE_SIZE != 0
+                    || buffer.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start + Integer.BYTES, length);
+            if (buffer.getInt(start + Integer.BYTES + length) != (int) crc.getValue()) {
+                break;
+            }
+            
+            UUID handle = new UUID(buffer.getLong(), buffer.getLong());
+            long userId = buffer.getLong();
+            LocalDateTime submittedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC);
+            int lines = buffer.getInt();
+            long[] productIds = new long[lines];
+            int[] quantities = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                productIds[i] = buffer.getLong();
+                quantities[i] = buffer.getInt();
+            }
+            buffer.getInt();
+            PendingOrder order = new PendingOrder(handle.toString(), userId, submittedAt, productIds, quantities);
+            order.segment = segment;
+            orders.add(order);
+        }
+        return orders;
+    }
+    
+    static void delete(Path dir, long segment) throws IOException {
+        Files.deleteIfExists(dir.resolve("intake-" + segment + ".journal"));
+    }
+}
@@ -0,0 +1,394 @@
+package com.leon.brewbuybackendjavaproject.intake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.leon.brewbuybackendjavaproject.Model.OrderIntake;
+import com.leon.brewbuybackendjavaproject.Model.OrderIntakeStatus;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Repo.OrderIntakeRepository;
+import com.leon.brewbuybackendjavaproject.Service.OrderPlacement;
+import com.leon.brewbuybackendjavaproject.Service.OrderPricingService;
+import com.leon.brewbuybackendjavaproject.Service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async order intake, for bursts that would otherwise each pay a transaction of
+ * their own. POST /api/orders validates the order against the catalog, appends it
+ * to a local journal segment and puts it on a bounded queue, then answers 202 with
+ * a handle; the client polls GET /api/orders/intake/{handle} for the outcome.
+ *
+ * A single writer thread drains the queue in groups of up to batch-size orders, or
+ * whatever arrived within max-wait of the first, and places a whole group in one
+ * transaction: stock for the group is reserved in one go, each order all or nothing,
+ * so one that has run out is rejected without taking the rest of its group with it;
+ * the orders' inserts go out as JDBC batches and the group shares one commit. Every
+ * outcome is recorded in order_intakes in that same transaction.
+ *
+ * Journal segments are deleted once all their orders are placed. After a crash the
+ * segments still on disk are replayed at startup, skipping orders that already have
+ * an order_intakes row, so an accepted order is placed exactly once.
+ */
+@Service
+@ConditionalOnProperty(name = "brewbuy.orders.intake.mode", havingValue = "async")
+public class OrderIntakeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+    
+    private static final long SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int MESSAGE_LENGTH = 255;
+    private static final String INSERT_INTAKE_SQL =
+            "INSERT INTO order_intakes (handle, user_id, status, order_id, message, submitted_at, completed_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderPricingService orderPricingService;
+    
+    @Autowired
+    private OrderIntakeRepository orderIntakeRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Depending on the EntityManagerFactory makes recovery run after the schema update
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Value("${brewbuy.orders.intake.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${brewbuy.orders.intake.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${brewbuy.orders.intake.max-wait:5ms}")
+    private Duration maxWait;
+    
+    @Value("${brewbuy.orders.intake.journal-dir:data/intake}")
+    private Path journalDir;
+    
+    // Force every journal write to disk; without it a process crash loses nothing but a power cut can
+    @Value("${brewbuy.orders.intake.journal-sync:false}")
+    private boolean journalSync;
+    
+    @Value("${brewbuy.orders.intake.retention:24h}")
+    private Duration retention;
+    
+    @Value("${brewbuy.orders.intake.max-recent:100000}")
+    private long maxRecent;
+    
+    private BlockingQueue<PendingOrder> queue;
+    
+    // Tickets of orders not placed yet, and of recently placed ones; older outcomes are read from order_intakes
+    private final Map<String, OrderIntakeTicket> inFlight = new ConcurrentHashMap<>();
+    private Cache<String, OrderIntakeTicket> recent;
+    
+    // Guarded by this
+    private OrderIntakeJournal journal;
+    
+    // Used by the writer thread only
+    private List<PendingOrder> recovered;
+    private long oldestSegment;
+    
+    private volatile boolean running;
+    private Thread writer;
+    
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        recent = Caffeine.newBuilder()
+                .maximumSize(maxRecent)
+                .expireAfterWrite(retention)
+                .build();
+        
+        Files.createDirectories(journalDir);
+        List<Long> segments = OrderIntakeJournal.listSegments(journalDir);
+        long nextSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        oldestSegment = segments.isEmpty() ? nextSegment : segments.get(0);
+        recovered = recover(segments);
+        journal = OrderIntakeJournal.create(journalDir, nextSegment, journalSync);
+        
+        running = true;
+        writer = new Thread(this::drain, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        // Lets the writer finish its batch; orders still queued stay in the journal for the next start
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        synchronized (this) {
+            journal.close();
+        }
+    }
+    
+    /**
+     * Validates the order and queues it. Throws IllegalArgumentException or
+     * InsufficientStockException for an order the writer would reject anyway, and
+     * RejectedExecutionException when the queue is full.
+     */
+    public OrderIntakeTicket submit(Long userId, List<OrderItem> items) {
+        orderPricingService.price(items);
+        PendingOrder order = PendingOrder.of(UUID.randomUUID().toString(), userId, items);
+        OrderIntakeTicket ticket = new OrderIntakeTicket(order);
+        
+        synchronized (this) {
+            // Only submitters add to the queue and they hold this lock, so the space is still there below
+            if (queue.remainingCapacity() == 0) {
+                throw new RejectedExecutionException("Order intake queue is full");
+            }
+            try {
+                if (journal.size() >= SEGMENT_BYTES) {
+                    journal.close();
+                    journal = OrderIntakeJournal.create(journalDir, journal.getSegment() + 1, journalSync);
+                }
+                order.segment = journal.getSegment();
+                journal.append(order);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            inFlight.put(order.handle, ticket);
+            queue.add(order);
+        }
+        return ticket;
+    }
+    
+    // A ticket is only shown to the user who placed the order
+    public Optional<OrderIntakeTicket> getTicket(String handle, Long userId) {
+        OrderIntakeTicket ticket = inFlight.get(handle);
+        if (ticket == null) {
+            ticket = recent.getIfPresent(handle);
+        }
+        if (ticket != null) {
+            return ticket.belongsTo(userId) ? Optional.of(ticket) : Optional.empty();
+        }
+        return orderIntakeRepository.findByHandleAndUserId(handle, userId).map(OrderIntakeTicket::new);
+    }
+    
+    // Outcomes are only needed while clients may still poll them; replay never reaches back this far
+    @Scheduled(initialDelayString = "${brewbuy.orders.intake.purge-interval:PT1H}",
+               fixedDelayString = "${brewbuy.orders.intake.purge-interval:PT1H}")
+    public void purgeCompleted() {
+        orderIntakeRepository.deleteCompletedBefore(LocalDateTime.now().minus(retention));
+    }
+    
+    // The journaled orders that never got an outcome, oldest first
+    private List<PendingOrder> recover(List<Long> segments) throws IOException {
+        List<PendingOrder> journaled = new ArrayList<>();
+        for (Long segment : segments) {
+            journaled.addAll(OrderIntakeJournal.read(journalDir, segment));
+        }
+        
+        Set<String> placed = new HashSet<>();
+        for (int i = 0; i < journaled.size(); i += 1000) {
+            List<String> handles = journaled.subList(i, Math.min(i + 1000, journaled.size())).stream()
+                    .map(order -> order.handle)
+                    .toList();
+            placed.addAll(orderIntakeRepository.findExistingHandles(handles));
+        }
+        
+        List<PendingOrder> pending = new ArrayList<>();
+        for (PendingOrder order : journaled) {
+            if (!placed.contains(order.handle)) {
+                pending.add(order);
+                inFlight.put(order.handle, new OrderIntakeTicket(order));
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} journaled orders", pending.size());
+        }
+        return pending;
+    }
+    
+    private void drain() {
+        for (int i = 0; i < recovered.size() && running; i += batchSize) {
+            process(recovered.subList(i, Math.min(i + batchSize, recovered.size())));
+        }
+        recovered = null;
+        
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            process(batch);
+            batch.clear();
+        }
+    }
+    
+    private void process(List<PendingOrder> batch) {
+        List<OrderIntake> outcomes = null;
+        while (outcomes == null) {
+            try {
+                outcomes = commit(batch);
+            } catch (CannotCreateTransactionException e) {
+                // The database is unreachable and nothing was written; the orders are still journaled
+                if (!running) {
+                    return;
+                }
+                log.warn("Could not reach the database for order intake, retrying", e);
+                pause();
+            } catch (RuntimeException e) {
+                // Something other than an order's own stock or validation; place the orders one by one
+                // so only the one causing it is lost
+                log.warn("Order intake batch of {} failed, placing its orders one at a time", batch.size(), e);
+                outcomes = new ArrayList<>(batch.size());
+                for (PendingOrder order : batch) {
+                    outcomes.add(commitAlone(order));
+                }
+            }
+        }
+        
+        // Only reported once committed
+        for (OrderIntake outcome : outcomes) {
+            OrderIntakeTicket ticket = inFlight.get(outcome.getHandle());
+            if (ticket != null) {
+                ticket.complete(outcome);
+            } else {
+                ticket = new OrderIntakeTicket(outcome);
+            }
+            recent.put(outcome.getHandle(), ticket);
+            inFlight.remove(outcome.getHandle());
+        }
+        deleteSegmentsBefore(batch.get(batch.size() - 1).segment);
+    }
+    
+    private List<OrderIntake> commit(List<PendingOrder> batch) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<OrderPlacement> placements = new ArrayList<>(batch.size());
+            for (PendingOrder pending : batch) {
+                placements.add(new OrderPlacement(pending.userId, pending.toOrderItems()));
+            }
+            // Prices as of now; the catalog may have changed since the orders were accepted
+            orderService.createOrders(placements);
+            
+            List<OrderIntake> outcomes = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                OrderPlacement placement = placements.get(i);
+                outcomes.add(placement.getOutcome() == OrderPlacement.Outcome.CREATED
+                        ? outcome(batch.get(i), OrderIntakeStatus.CREATED, placement.getOrder().getId(), null)
+                        : outcome(batch.get(i), OrderIntakeStatus.REJECTED, null, placement.getError()));
+            }
+            record(outcomes);
+            return outcomes;
+        });
+    }
+    
+    private OrderIntake commitAlone(PendingOrder pending) {
+        try {
+            return commit(List.of(pending)).get(0);
+        } catch (RuntimeException e) {
+            log.error("Could not place order {} from intake", pending.handle, e);
+            OrderIntake outcome = outcome(pending, OrderIntakeStatus.REJECTED, null, "Order could not be placed");
+            try {
+                // So a replay does not try it again
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> record(List.of(outcome)));
+            } catch (RuntimeException recordFailure) {
+                log.warn("Could not record the rejection of order {}", pending.handle, recordFailure);
+            }
+            return outcome;
+        }
+    }
+    
+    // Plain JDBC: saving entities with assigned ids through the repository would read each one first
+    private void record(List<OrderIntake> outcomes) {
+        List<Object[]> args = new ArrayList<>(outcomes.size());
+        for (OrderIntake outcome : outcomes) {
+            args.add(new Object[] {outcome.getHandle(), outcome.getUserId(), outcome.getStatus().name(),
+                    outcome.getOrderId(), outcome.getMessage(), outcome.getSubmittedAt(), outcome.getCompletedAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_INTAKE_SQL, args);
+    }
+    
+    private static OrderIntake outcome(PendingOrder pending, OrderIntakeStatus status, Long orderId, String message) {
+        OrderIntake outcome = new OrderIntake();
+        outcome.setHandle(pending.handle);
+        outcome.setUserId(pending.userId);
+        outcome.setStatus(status);
+        outcome.setOrderId(orderId);
+        if (message != null && message.length() > MESSAGE_LENGTH) {
+            message = message.substring(0, MESSAGE_LENGTH);
+        }
+        outcome.setMessage(message);
+        outcome.setSubmittedAt(pending.submittedAt);
+        outcome.setCompletedAt(LocalDateTime.now());
+        return outcome;
+    }
+    
+    // Orders are placed in the order they were journaled, so every segment older than the last placed order's is done
+    private void deleteSegmentsBefore(long segment) {
+        for (; oldestSegment < segment; oldestSegment++) {
+            try {
+                OrderIntakeJournal.delete(journalDir, oldestSegment);
+            } catch (IOException e) {
+                // Its orders have order_intakes rows, so a replay skips them
+                log.warn("Could not delete order intake journal segment {}", oldestSegment, e);
+            }
+        }
+    }
+    
+    private static void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.leon.brewbuybackendjavaproject.intake;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderIntake;
+import com.leon.brewbuybackendjavaproject.Model.OrderIntakeStatus;
+
+import java.time.LocalDateTime;
+
+// What the client gets back for an order taken through async intake, and polls at GET /api/orders/intake/{handle}
+public class OrderIntakeTicket {
+    
+    private final String handle;
+    private final long userId;
+    private final LocalDateTime submittedAt;
+    private volatile OrderIntakeStatus status = OrderIntakeStatus.QUEUED;
+    private volatile Long orderId;
+    private volatile String message;
+    private volatile LocalDateTime completedAt;
+    
+    OrderIntakeTicket(PendingOrder order) {
+        this.handle = order.handle;
+        this.userId = order.userId;
+        this.submittedAt = order.submittedAt;
+    }
+    
+    OrderIntakeTicket(OrderIntake intake) {
+        this.handle = intake.getHandle();
+        this.userId = intake.getUserId();
+        this.submittedAt = intake.getSubmittedAt();
+        complete(intake);
+    }
+    
+    void complete(OrderIntake intake) {
+        orderId = intake.getOrderId();
+        message = intake.getMessage();
+        completedAt = intake.getCompletedAt();
+        status = intake.getStatus();
+    }
+    
+    boolean belongsTo(Long userId) {
+        return userId != null && this.userId == userId;
+    }
+    
+    public String getHandle() {
+        return handle;
+    }
+    
+    public OrderIntakeStatus getStatus() {
+        return status;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
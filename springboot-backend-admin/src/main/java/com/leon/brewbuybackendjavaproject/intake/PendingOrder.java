@@ -0,0 +1,47 @@
+package com.leon.brewbuybackendjavaproject.intake;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// An accepted order waiting for the writer: who placed it and which products in what quantities
+final class PendingOrder {
+    
+    final String handle;
+    final long userId;
+    final LocalDateTime submittedAt;
+    final long[] productIds;
+    final int[] quantities;
+    
+    // The journal segment it was written to
+    long segment;
+    
+    PendingOrder(String handle, long userId, LocalDateTime submittedAt, long[] productIds, int[] quantities) {
+        this.handle = handle;
+        this.userId = userId;
+        this.submittedAt = submittedAt;
+        this.productIds = productIds;
+        this.quantities = quantities;
+    }
+    
+    static PendingOrder of(String handle, long userId, List<OrderItem> items) {
+        long[] productIds = new long[items.size()];
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            productIds[i] = items.get(i).getProductId();
+            quantities[i] = items.get(i).getQuantity();
+        }
+        return new PendingOrder(handle, userId, LocalDateTime.now(), productIds, quantities);
+    }
+    
+    // Fresh items every time, since placing an order sets their prices and order
+    List<OrderItem> toOrderItems() {
+        List<OrderItem> items = new ArrayList<>(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            items.add(new OrderItem(null, productIds[i], quantities[i], null));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,403 @@
+package com.leon.brewbuybackendjavaproject.inventory;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Service.InventoryService;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Inventory for flash sales, where thousands of checkouts would queue on the row
+ * locks of a few products. Available counts live in memory, loaded from
+ * products.quantity at startup, and reservations are granted there without
+ * touching the database. Every reservation is appended to a local journal
+ * segment; a scheduled flush closes the segment and adds its net delta per
+ * product to the products table in one batched transaction.
+ *
+ * A segment's file is deleted once its deltas are committed, and the commit
+ * also records the segment in inventory_flush_log. After a crash the
+ * segments still on disk and not in the log are replayed at startup.
+ *
+ * The counts are only right while this is the one instance taking orders, and
+ * products.quantity trails them by up to a flush interval.
+ */
+@Service
+@ConditionalOnProperty(name = "brewbuy.inventory.mode", havingValue = "memory")
+public class InMemoryInventoryService implements InventoryService {
+    
+    private static final Logger log = LoggerFactory.getLogger(InMemoryInventoryService.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Depending on the EntityManagerFactory makes recovery run after the schema update
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Value("${brewbuy.inventory.memory.stripes:8}")
+    private int stripes;
+    
+    @Value("${brewbuy.inventory.memory.journal-dir:data/inventory}")
+    private Path journalDir;
+    
+    // Force every journal write to disk; without it a process crash loses nothing but a power cut can
+    @Value("${brewbuy.inventory.memory.journal-sync:false}")
+    private boolean journalSync;
+    
+    // The deltas written to one journal segment
+    private static final class Epoch {
+        final InventoryJournal journal;
+        final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+        final LongAdder writers = new LongAdder();
+        
+        Epoch(InventoryJournal journal) {
+            this.journal = journal;
+        }
+        
+        long delta(Long productId) {
+            LongAdder delta = deltas.get(productId);
+            return delta != null ? delta.sum() : 0;
+        }
+    }
+    
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    
+    // Closed epochs whose deltas are not in the products table yet, oldest first
+    private final List<Epoch> unapplied = new CopyOnWriteArrayList<>();
+    private volatile Epoch current;
+    
+    // Guards counter reloads against flushes. flushVersion is odd while a flush
+    // is writing to the database, so a reload can tell whether the quantity it
+    // read already includes deltas that are also still in unapplied
+    private final Object flushMonitor = new Object();
+    private long flushVersion;
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalStateException("brewbuy.inventory.memory.stripes must be a power of two");
+        }
+        Files.createDirectories(journalDir);
+        long lastSegment = recover();
+        current = new Epoch(InventoryJournal.create(journalDir, nextSegment(lastSegment), journalSync));
+        
+        jdbcTemplate.query("SELECT id, quantity FROM products", row -> {
+            counters.put(row.getLong(1), new StripedStockCounter(row.getLong(2), stripes));
+        });
+        log.info("In-memory inventory loaded {} products", counters.size());
+    }
+    
+    // Applies the segments a crash left behind and returns the highest segment number seen
+    private long recover() throws IOException {
+        Long lastApplied = jdbcTemplate.queryForObject("SELECT MAX(segment) FROM inventory_flush_log", Long.class);
+        long lastSegment = lastApplied != null ? lastApplied : 0;
+        List<Long> segments = InventoryJournal.listSegments(journalDir);
+        if (segments.isEmpty()) {
+            return lastSegment;
+        }
+        Set<Long> applied = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT segment FROM inventory_flush_log WHERE segment >= ?", Long.class, segments.get(0)));
+        for (Long segment : segments) {
+            if (!applied.contains(segment)) {
+                Map<Long, Long> net = InventoryJournal.read(journalDir, segment);
+                apply(segment, net);
+                log.info("Replayed inventory journal segment {} with {} products", segment, net.size());
+            }
+            InventoryJournal.delete(journalDir, segment);
+            lastSegment = Math.max(lastSegment, segment);
+        }
+        return lastSegment;
+    }
+    
+    private static long nextSegment(long after) {
+        return Math.max(System.currentTimeMillis(), after + 1);
+    }
+    
+    @Override
+    public void reserveStock(List<OrderItem> items) {
+        Map<Long, Integer> quantities = InventoryService.quantitiesByProduct(items);
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            StripedStockCounter counter = counters.get(entry.getKey());
+            if (counter == null || !counter.tryTake(entry.getValue())) {
+                giveBack(taken);
+                throw new InsufficientStockException(entry.getKey(), entry.getValue());
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Integer> deltas = new TreeMap<>();
+        taken.forEach((id, quantity) -> deltas.put(id, -quantity));
+        try {
+            record(deltas);
+        } catch (IOException e) {
+            giveBack(taken);
+            throw new UncheckedIOException("Could not journal a stock reservation", e);
+        }
+        
+        // The order itself can still fail after this; hand the stock back if it does
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(taken);
+                    }
+                }
+            });
+        }
+    }
+    
+    @Override
+    public boolean[] reserveEach(List<List<OrderItem>> orders) {
+        boolean[] reserved = new boolean[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                reserveStock(orders.get(i));
+                reserved[i] = true;
+            } catch (InsufficientStockException e) {
+                // Nothing of this order was kept
+            }
+        }
+        return reserved;
+    }
+    
+    @Override
+    public void releaseStock(List<OrderItem> items) {
+        Map<Long, Integer> quantities = InventoryService.quantitiesByProduct(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // Not before the cancellation commits, or a rolled back one would have freed the stock anyway
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(quantities);
+                }
+            });
+        } else {
+            release(quantities);
+        }
+    }
+    
+    private void release(Map<Long, Integer> taken) {
+        giveBack(taken);
+        try {
+            record(taken);
+        } catch (IOException e) {
+            // A replay after a crash would then count the stock as sold; too little is safer than too much
+            log.error("Could not journal the release of {}", taken, e);
+        }
+    }
+    
+    private void giveBack(Map<Long, Integer> taken) {
+        taken.forEach((id, quantity) -> {
+            StripedStockCounter counter = counters.get(id);
+            if (counter != null) {
+                counter.add(quantity);
+            }
+        });
+    }
+    
+    private void record(Map<Long, Integer> deltas) throws IOException {
+        while (true) {
+            Epoch epoch = current;
+            epoch.writers.increment();
+            try {
+                // A flush closed the epoch in the meantime and may already be summing it
+                if (epoch != current) {
+                    continue;
+                }
+                epoch.journal.append(deltas);
+                deltas.forEach((id, delta) -> epoch.deltas.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+                return;
+            } finally {
+                epoch.writers.decrement();
+            }
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${brewbuy.inventory.memory.flush-interval:PT1S}",
+               fixedDelayString = "${brewbuy.inventory.memory.flush-interval:PT1S}")
+    public synchronized void flush() {
+        if (!current.deltas.isEmpty()) {
+            Epoch closed = current;
+            try {
+                current = new Epoch(InventoryJournal.create(journalDir, nextSegment(closed.journal.getSegment()), journalSync));
+            } catch (IOException e) {
+                log.error("Could not open a new inventory journal segment", e);
+                return;
+            }
+            unapplied.add(closed);
+            // Let reservations that picked up the old epoch finish writing to it
+            while (closed.writers.sum() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+        
+        for (Epoch epoch : unapplied) {
+            Map<Long, Long> net = new TreeMap<>();
+            epoch.deltas.forEach((id, delta) -> net.put(id, delta.sum()));
+            synchronized (flushMonitor) {
+                flushVersion++;
+            }
+            boolean applied = false;
+            try {
+                apply(epoch.journal.getSegment(), net);
+                applied = true;
+            } catch (RuntimeException e) {
+                // Stays in unapplied and on disk; the next flush tries again
+                log.error("Could not flush inventory journal segment {}", epoch.journal.getSegment(), e);
+            } finally {
+                synchronized (flushMonitor) {
+                    if (applied) {
+                        unapplied.remove(epoch);
+                    }
+                    flushVersion++;
+                }
+            }
+            if (!applied) {
+                return;
+            }
+            try {
+                epoch.journal.delete();
+            } catch (IOException e) {
+                // The flush log row keeps a restart from applying it again
+                log.warn("Could not delete inventory journal segment {}", epoch.journal.getSegment(), e);
+            }
+            List<Long> ids = new ArrayList<>(net.keySet());
+            ids.forEach(productCache::invalidate);
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(ids));
+        }
+    }
+    
+    private void apply(long segment, Map<Long, Long> net) {
+        List<Object[]> args = new ArrayList<>(net.size());
+        net.forEach((id, delta) -> {
+            if (delta != 0) {
+                args.add(new Object[] {delta, id});
+            }
+        });
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE products SET quantity = quantity + ? WHERE id = ?", args);
+            }
+            // Rows are only needed while their segment file may still exist
+            List<Long> remaining = listSegments();
+            long oldest = remaining.isEmpty() ? segment : Math.min(segment, remaining.get(0));
+            jdbcTemplate.update("DELETE FROM inventory_flush_log WHERE segment < ?", oldest);
+            jdbcTemplate.update("INSERT INTO inventory_flush_log (segment, applied_at) VALUES (?, ?)",
+                    segment, LocalDateTime.now());
+        });
+    }
+    
+    private List<Long> listSegments() {
+        try {
+            return InventoryJournal.listSegments(journalDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Edits made through ProductService replace the count; this service's own flushes are ignored
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        event.getDeletedIds().forEach(counters::remove);
+        event.getChangedIds().forEach(this::reload);
+    }
+    
+    // Reservations racing with the reload can be counted against the old value
+    private void reload(Long productId) {
+        while (true) {
+            long version;
+            synchronized (flushMonitor) {
+                version = flushVersion;
+            }
+            if ((version & 1) == 1) {
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+            List<Long> rows = jdbcTemplate.queryForList(
+                    "SELECT quantity FROM products WHERE id = ?", Long.class, productId);
+            synchronized (flushMonitor) {
+                if (version != flushVersion) {
+                    continue;
+                }
+                if (rows.isEmpty()) {
+                    counters.remove(productId);
+                    return;
+                }
+                long available = rows.get(0) != null ? rows.get(0) : 0;
+                for (Epoch epoch : unapplied) {
+                    available += epoch.delta(productId);
+                }
+                available += current.delta(productId);
+                counters.put(productId, new StripedStockCounter(available, stripes));
+                return;
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        try {
+            if (current.deltas.isEmpty()) {
+                current.journal.delete();
+            } else {
+                current.journal.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close the inventory journal", e);
+        }
+    }
+}
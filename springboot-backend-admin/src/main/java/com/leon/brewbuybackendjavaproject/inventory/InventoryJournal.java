@@ -0,0 +1,101 @@
+package com.leon.brewbuybackendjavaproject.inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * One append-only segment of stock deltas, a product id and a signed quantity per
+ * record. Segments are numbered; a segment is deleted once its deltas are in the
+ * products table, so whatever segments are left after a crash still need applying.
+ */
+final class InventoryJournal implements AutoCloseable {
+    
+    private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+    private static final Pattern FILE_NAME = Pattern.compile("inventory-(\\d+)\\.journal");
+    
+    private final long segment;
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean sync;
+    
+    private InventoryJournal(long segment, Path file, FileChannel channel, boolean sync) {
+        this.segment = segment;
+        this.file = file;
+        this.channel = channel;
+        this.sync = sync;
+    }
+    
+    static InventoryJournal create(Path dir, long segment, boolean sync) throws IOException {
+        Path file = dir.resolve("inventory-" + segment + ".journal");
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new InventoryJournal(segment, file, channel, sync);
+    }
+    
+    long getSegment() {
+        return segment;
+    }
+    
+    // One write per call, so the records of a reservation are never interleaved with another's
+    void append(Map<Long, Integer> deltas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(deltas.size() * RECORD_SIZE);
+        deltas.forEach((productId, delta) -> buffer.putLong(productId).putInt(delta));
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+    
+    // Segments left in dir, oldest first
+    static List<Long> listSegments(Path dir) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        segments.sort(null);
+        return segments;
+    }
+    
+    // Net delta per product in a segment; a record cut short by a crash is ignored
+    static Map<Long, Long> read(Path dir, long segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("inventory-" + segment + ".journal")));
+        Map<Long, Long> net = new TreeMap<>();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            net.merge(buffer.getLong(), (long) buffer.getInt(), Long::sum);
+        }
+        return net;
+    }
+    
+    static void delete(Path dir, long segment) throws IOException {
+        Files.deleteIfExists(dir.resolve("inventory-" + segment + ".journal"));
+    }
+}
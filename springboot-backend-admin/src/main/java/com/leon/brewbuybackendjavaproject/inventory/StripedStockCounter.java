@@ -0,0 +1,130 @@
+package com.leon.brewbuybackendjavaproject.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available stock of one product. Like LongAdder it starts as a single count and
+ * spreads over padded stripes once two threads collide on it, so only products
+ * that are actually contended pay for the stripes. A thread takes from its own
+ * stripe with one CAS. Only when no single stripe holds enough does a taker
+ * gather from all of them, and gatherers queue behind the monitor so none fails
+ * because another is holding units it will hand back.
+ */
+final class StripedStockCounter {
+    
+    // Longs per stripe, so neighbouring stripes never share a 64-byte cache line
+    private static final int PADDING = 8;
+    
+    private final AtomicLong base;
+    private final int stripes;
+    private volatile AtomicLongArray cells;
+    
+    // stripes must be a power of two
+    StripedStockCounter(long initial, int stripes) {
+        this.base = new AtomicLong(initial);
+        this.stripes = stripes;
+    }
+    
+    boolean tryTake(long quantity) {
+        AtomicLongArray striped = cells;
+        if (striped == null) {
+            long available = base.get();
+            if (available < quantity) {
+                return gather(quantity);
+            }
+            if (base.compareAndSet(available, available - quantity)) {
+                return true;
+            }
+            striped = inflate();
+        }
+        int home = homeStripe();
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((home + i) & (stripes - 1)) * PADDING;
+            long available = striped.get(cell);
+            while (available >= quantity) {
+                if (striped.compareAndSet(cell, available, available - quantity)) {
+                    return true;
+                }
+                available = striped.get(cell);
+            }
+        }
+        return gather(quantity);
+    }
+    
+    void add(long quantity) {
+        AtomicLongArray striped = cells;
+        if (striped == null) {
+            base.getAndAdd(quantity);
+        } else {
+            striped.getAndAdd(homeStripe() * PADDING, quantity);
+        }
+    }
+    
+    long available() {
+        long total = base.get();
+        AtomicLongArray striped = cells;
+        if (striped != null) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                total += striped.get(stripe * PADDING);
+            }
+        }
+        return total;
+    }
+    
+    private synchronized AtomicLongArray inflate() {
+        if (cells == null) {
+            AtomicLongArray striped = new AtomicLongArray(stripes * PADDING);
+            long moved = base.getAndSet(0);
+            if (moved <= 0) {
+                striped.set(0, moved);
+            } else {
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    striped.set(stripe * PADDING, moved / stripes + (stripe < moved % stripes ? 1 : 0));
+                }
+            }
+            cells = striped;
+        }
+        return cells;
+    }
+    
+    private synchronized boolean gather(long quantity) {
+        // base can still pick up adds that raced with inflate
+        long taken = takeUpTo(base, quantity);
+        AtomicLongArray striped = cells;
+        for (int stripe = 0; striped != null && stripe < stripes && taken < quantity; stripe++) {
+            int cell = stripe * PADDING;
+            long available = striped.get(cell);
+            while (available > 0) {
+                long part = Math.min(available, quantity - taken);
+                if (striped.compareAndSet(cell, available, available - part)) {
+                    taken += part;
+                    break;
+                }
+                available = striped.get(cell);
+            }
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        add(taken);
+        return false;
+    }
+    
+    private static long takeUpTo(AtomicLong count, long quantity) {
+        long available = count.get();
+        while (available > 0) {
+            long part = Math.min(available, quantity);
+            if (count.compareAndSet(available, available - part)) {
+                return part;
+            }
+            available = count.get();
+        }
+        return 0;
+    }
+    
+    private int homeStripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16 & (stripes - 1);
+    }
+}
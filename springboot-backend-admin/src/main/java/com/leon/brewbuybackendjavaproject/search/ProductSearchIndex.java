@@ -0,0 +1,434 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions, ranked with BM25.
+ *
+ * Every indexed version of a product gets a new document number; updates and
+ * deletes only mark the old document dead, and the postings are compacted once
+ * enough dead documents pile up. Query words match exactly, the last word also
+ * as a prefix (search-as-you-type), and a word with no exact match falls back
+ * to terms one edit away. Reads share a lock, writes take it exclusively.
+ */
+public class ProductSearchIndex {
+    
+    // BM25 parameters
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    
+    private static final float NAME_BOOST = 2.0f;
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final float FUZZY_WEIGHT = 0.5f;
+    
+    private static final int MAX_QUERY_TOKENS = 16;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_COMPACT_DEAD_DOCS = 1024;
+    
+    public static class Hit {
+        private final long productId;
+        private final float score;
+        
+        Hit(long productId, float score) {
+            this.productId = productId;
+            this.score = score;
+        }
+        
+        public long getProductId() {
+            return productId;
+        }
+        
+        public float getScore() {
+            return score;
+        }
+    }
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Sorted so prefix expansion is a range scan
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // Each term with one character removed -> the terms it came from, for edit-distance-1 lookups
+    private final Map<String, List<String>> deletions = new HashMap<>();
+    
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private long[] productIds = new long[1024];
+    private int[] nameLengths = new int[1024];
+    private int[] descriptionLengths = new int[1024];
+    private final BitSet dead = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    
+    public void index(long productId, String name, String description) {
+        List<String> nameTokens = Tokenizer.tokenize(name);
+        List<String> descriptionTokens = Tokenizer.tokenize(description);
+        
+        // Term -> {frequency in name, frequency in description}
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (String token : nameTokens) {
+            frequencies.computeIfAbsent(token, t -> new int[2])[0]++;
+        }
+        for (String token : descriptionTokens) {
+            frequencies.computeIfAbsent(token, t -> new int[2])[1]++;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            markDead(productId);
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            productIds[doc] = productId;
+            nameLengths[doc] = nameTokens.size();
+            descriptionLengths[doc] = descriptionTokens.size();
+            docByProduct.put(productId, doc);
+            liveDocs++;
+            totalNameLength += nameTokens.size();
+            totalDescriptionLength += descriptionTokens.size();
+            
+            frequencies.forEach((term, tf) -> postingsFor(term).add(doc, tf[0], tf[1]));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            markDead(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Best matches first. Products matching every query word win; if none do,
+     * products matching any word are returned instead.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float averageNameLength = Math.max(1f, (float) totalNameLength / liveDocs);
+            float averageDescriptionLength = Math.max(1f, (float) totalDescriptionLength / liveDocs);
+            
+            ScoreAccumulator scores = new ScoreAccumulator();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                for (Map.Entry<String, Float> expansion : expand(tokens.get(i), last).entrySet()) {
+                    Postings postings = terms.get(expansion.getKey());
+                    int df = Math.min(postings.size, liveDocs);
+                    float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                    float weight = expansion.getValue() * idf;
+                    int bit = 1 << i;
+                    for (int j = 0; j < postings.size; j++) {
+                        int doc = postings.docs[j];
+                        if (dead.get(doc)) {
+                            continue;
+                        }
+                        float score = 0;
+                        if (postings.nameFrequencies[j] > 0) {
+                            score += NAME_BOOST * termScore(postings.nameFrequencies[j], nameLengths[doc], averageNameLength);
+                        }
+                        if (postings.descriptionFrequencies[j] > 0) {
+                            score += termScore(postings.descriptionFrequencies[j], descriptionLengths[doc], averageDescriptionLength);
+                        }
+                        scores.add(doc, weight * score, bit);
+                    }
+                }
+            }
+            
+            int allTokens = (1 << tokens.size()) - 1;
+            List<Hit> hits = topHits(scores, limit, allTokens);
+            return hits.isEmpty() ? topHits(scores, limit, 0) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static float termScore(int tf, int length, float averageLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+    
+    // Terms a query word stands for, with how much a match on each counts
+    private Map<String, Float> expand(String token, boolean prefix) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        if (terms.containsKey(token)) {
+            expansions.put(token, 1f);
+        }
+        if (prefix) {
+            for (String term : terms.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.put(term, PREFIX_WEIGHT);
+            }
+        }
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(token)) {
+                if (editDistanceAtMostOne(token, term)) {
+                    expansions.put(term, FUZZY_WEIGHT);
+                }
+            }
+        }
+        return expansions;
+    }
+    
+    // Terms sharing a one-deletion variant with the token: covers one insertion, deletion, substitution or transposition
+    private List<String> fuzzyCandidates(String token) {
+        LinkedHashSet<String> candidates = new LinkedHashSet<>();
+        candidates.addAll(deletions.getOrDefault(token, List.of()));
+        for (String variant : deletionsOf(token)) {
+            if (terms.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            candidates.addAll(deletions.getOrDefault(variant, List.of()));
+        }
+        return new ArrayList<>(candidates);
+    }
+    
+    private static List<String> deletionsOf(String term) {
+        List<String> variants = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            String variant = term.substring(0, i) + term.substring(i + 1);
+            if (i == 0 || term.charAt(i) != term.charAt(i - 1)) {
+                variants.add(variant);
+            }
+        }
+        return variants;
+    }
+    
+    // Optimal string alignment distance <= 1, i.e. a single edit or adjacent swap
+    static boolean editDistanceAtMostOne(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDifference > 0) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (lengthDifference < 0) {
+            return b.regionMatches(i + 1, a, i, a.length() - i);
+        }
+        if (i == a.length()) {
+            return true;
+        }
+        if (a.regionMatches(i + 1, b, i + 1, a.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+    }
+    
+    private List<Hit> topHits(ScoreAccumulator scores, int limit, int requiredTokens) {
+        // Min-heap on score, ties broken towards the lower product id
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, (x, y) -> x.score != y.score
+                ? Float.compare(x.score, y.score)
+                : Long.compare(y.productId, x.productId));
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            int doc = scores.keys[slot] - 1;
+            if (doc < 0 || (scores.tokens[slot] & requiredTokens) != requiredTokens) {
+                continue;
+            }
+            heap.add(new Hit(productIds[doc], scores.scores[slot]));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        Hit[] hits = new Hit[heap.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            hits[i] = heap.poll();
+        }
+        return Arrays.asList(hits);
+    }
+    
+    private Postings postingsFor(String term) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            postings = new Postings();
+            terms.put(term, postings);
+            if (term.length() >= MIN_FUZZY_LENGTH - 1) {
+                for (String variant : deletionsOf(term)) {
+                    deletions.computeIfAbsent(variant, v -> new ArrayList<>(1)).add(term);
+                }
+            }
+        }
+        return postings;
+    }
+    
+    private void markDead(long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        dead.set(doc);
+        liveDocs--;
+        totalNameLength -= nameLengths[doc];
+        totalDescriptionLength -= descriptionLengths[doc];
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newLength);
+            nameLengths = Arrays.copyOf(nameLengths, newLength);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, newLength);
+        }
+    }
+    
+    // Renumbers live documents densely and drops dead postings once a quarter of the documents are dead
+    private void compactIfNeeded() {
+        int deadDocs = docCount - liveDocs;
+        if (deadDocs < MIN_COMPACT_DEAD_DOCS || deadDocs < docCount / 4) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (dead.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = next;
+                productIds[next] = productIds[doc];
+                nameLengths[next] = nameLengths[doc];
+                descriptionLengths[next] = descriptionLengths[doc];
+                docByProduct.put(productIds[next], next);
+                next++;
+            }
+        }
+        docCount = next;
+        dead.clear();
+        
+        boolean removedTerms = terms.values().removeIf(postings -> postings.compact(remap) == 0);
+        if (removedTerms) {
+            deletions.clear();
+            for (String term : terms.keySet()) {
+                if (term.length() >= MIN_FUZZY_LENGTH - 1) {
+                    for (String variant : deletionsOf(term)) {
+                        deletions.computeIfAbsent(variant, v -> new ArrayList<>(1)).add(term);
+                    }
+                }
+            }
+        }
+    }
+    
+    // Documents containing one term, in increasing document order
+    private static class Postings {
+        int[] docs = new int[2];
+        int[] nameFrequencies = new int[2];
+        int[] descriptionFrequencies = new int[2];
+        int size;
+        
+        void add(int doc, int nameFrequency, int descriptionFrequency) {
+            if (size == docs.length) {
+                int newLength = size * 2;
+                docs = Arrays.copyOf(docs, newLength);
+                nameFrequencies = Arrays.copyOf(nameFrequencies, newLength);
+                descriptionFrequencies = Arrays.copyOf(descriptionFrequencies, newLength);
+            }
+            docs[size] = doc;
+            nameFrequencies[size] = nameFrequency;
+            descriptionFrequencies[size] = descriptionFrequency;
+            size++;
+        }
+        
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                int doc = remap[docs[j]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    nameFrequencies[kept] = nameFrequencies[j];
+                    descriptionFrequencies[kept] = descriptionFrequencies[j];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+    
+    // Open-addressing map from document to score and the query words it matched, sized by the matches
+    private static class ScoreAccumulator {
+        int[] keys = new int[64];  // doc + 1, 0 = empty
+        float[] scores = new float[64];
+        int[] tokens = new int[64];
+        int count;
+        
+        void add(int doc, float score, int token) {
+            if ((count + 1) * 2 > keys.length) {
+                grow();
+            }
+            int slot = slotOf(keys, doc);
+            if (keys[slot] == 0) {
+                keys[slot] = doc + 1;
+                count++;
+            }
+            scores[slot] += score;
+            tokens[slot] |= token;
+        }
+        
+        private static int slotOf(int[] keys, int doc) {
+            int mask = keys.length - 1;
+            int slot = (doc * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != 0 && keys[slot] != doc + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldScores = scores;
+            int[] oldTokens = tokens;
+            keys = new int[oldKeys.length * 2];
+            scores = new float[keys.length];
+            tokens = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slotOf(keys, oldKeys[i] - 1);
+                    keys[slot] = oldKeys[i];
+                    scores[slot] = oldScores[i];
+                    tokens[slot] = oldTokens[i];
+                }
+            }
+        }
+    }
+}
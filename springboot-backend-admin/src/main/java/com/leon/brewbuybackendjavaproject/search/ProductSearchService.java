@@ -0,0 +1,135 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.ProductService;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Owns the product search index: builds it in the background at startup and
+ * keeps it current from ProductChangedEvents. Searches rank ids in memory and
+ * load only the returned products, through the product cache.
+ */
+@Service
+public class ProductSearchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    
+    // Guards the startup build against events: a product changed while the build runs is
+    // indexed by the event and skipped by the build, so a stale row read earlier never wins
+    private final Object buildLock = new Object();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        synchronized (buildLock) {
+            building = true;
+        }
+        Thread thread = new Thread(this::build, "product-search-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProductSummary> rows = productRepository.streamAllSummaries()) {
+                    rows.forEach(row -> {
+                        synchronized (buildLock) {
+                            if (!changedDuringBuild.contains(row.getId())) {
+                                index.index(row.getId(), row.getName(), row.getDescription());
+                            }
+                        }
+                    });
+                }
+            });
+            ready = true;
+            log.info("Product search index built with {} products in {} ms",
+                    index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Could not build the product search index", e);
+        } finally {
+            synchronized (buildLock) {
+                building = false;
+                changedDuringBuild.clear();
+            }
+        }
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        // The index holds names and descriptions only; quantities come from the product cache at search time
+        if (event.isStockOnly()) {
+            return;
+        }
+        // Read under the lock: two events for one product then read and apply in the same order,
+        // so an older read can never overwrite a newer one
+        synchronized (buildLock) {
+            List<ProductSummary> changed = event.getChangedIds().isEmpty()
+                    ? List.of()
+                    : productRepository.findSummariesByIdIn(event.getChangedIds());
+            Set<Long> found = changed.stream().map(ProductSummary::getId).collect(Collectors.toSet());
+            
+            if (building) {
+                changedDuringBuild.addAll(event.getChangedIds());
+                changedDuringBuild.addAll(event.getDeletedIds());
+            }
+            for (ProductSummary product : changed) {
+                index.index(product.getId(), product.getName(), product.getDescription());
+            }
+            // Changed but already gone again
+            for (Long id : event.getChangedIds()) {
+                if (!found.contains(id)) {
+                    index.remove(id);
+                }
+            }
+            for (Long id : event.getDeletedIds()) {
+                index.remove(id);
+            }
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public List<Product> search(String query, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (ProductSearchIndex.Hit hit : index.search(query, limit)) {
+            ids.add(hit.getProductId());
+        }
+        return ids.isEmpty() ? List.of() : productService.getProductsByIds(ids);
+    }
+}
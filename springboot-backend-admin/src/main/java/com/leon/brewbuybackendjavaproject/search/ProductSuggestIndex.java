@@ -0,0 +1,289 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Type-ahead over product names. A product is found by the start of its name or
+ * of any later word in it, and the best-stocked matches come first.
+ *
+ * The index is an immutable snapshot: every word start of every name, sorted as
+ * a packed long (product slot and character offset), plus a max-stock segment
+ * tree over that order. A prefix is a binary-searched range of the array and the
+ * top K of the range come out of the tree without scanning it. Changes build a
+ * new snapshot by merging into the old one, and readers never lock.
+ */
+public class ProductSuggestIndex {
+    
+    private static final int OFFSET_BITS = 16;
+    private static final int MAX_OFFSET = (1 << OFFSET_BITS) - 1;
+    
+    private static final class Snapshot {
+        final long[] productIds;
+        final String[] names;
+        final String[] keys;       // normalized names
+        final int[] quantities;
+        final long[] entries;      // slot << OFFSET_BITS | offset, ordered by the key text from offset
+        final int[] tree;          // max quantity per node, leaves at leafBase + entry
+        final int leafBase;
+        
+        Snapshot(long[] productIds, String[] names, String[] keys, int[] quantities, long[] entries) {
+            this.productIds = productIds;
+            this.names = names;
+            this.keys = keys;
+            this.quantities = quantities;
+            this.entries = entries;
+            int base = 1;
+            while (base < entries.length) {
+                base <<= 1;
+            }
+            this.leafBase = base;
+            this.tree = new int[2 * base];
+            Arrays.fill(tree, Integer.MIN_VALUE);
+            for (int i = 0; i < entries.length; i++) {
+                tree[base + i] = quantities[slot(entries[i])];
+            }
+            for (int node = base - 1; node > 0; node--) {
+                tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+        
+        // Orders entries by their text, then by slot so equal names have a fixed order
+        int compare(long a, long b) {
+            int result = compareText(keys[slot(a)], offset(a), keys[slot(b)], offset(b));
+            return result != 0 ? result : Integer.compare(slot(a), slot(b));
+        }
+    }
+    
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new String[0], new String[0], new int[0], new long[0]);
+    
+    public int size() {
+        return snapshot.productIds.length;
+    }
+    
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String probe = Tokenizer.normalize(prefix);
+        Snapshot current = snapshot;
+        if (probe.isEmpty() || limit <= 0 || current.entries.length == 0) {
+            return List.of();
+        }
+        int from = lowerBound(current, probe, false);
+        int to = lowerBound(current, probe, true);
+        if (from >= to) {
+            return List.of();
+        }
+        
+        // Best-first walk of the tree nodes that cover [from, to)
+        PriorityQueue<Integer> nodes = new PriorityQueue<>((x, y) -> Integer.compare(current.tree[y], current.tree[x]));
+        collect(current, 1, 0, current.leafBase, from, to, nodes);
+        List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!nodes.isEmpty() && suggestions.size() < limit) {
+            int node = nodes.poll();
+            if (node < current.leafBase) {
+                nodes.add(2 * node);
+                nodes.add(2 * node + 1);
+                continue;
+            }
+            // A product can match at several word starts
+            int slot = slot(current.entries[node - current.leafBase]);
+            if (seen.add(slot)) {
+                suggestions.add(new ProductSuggestion(current.productIds[slot], current.names[slot], current.quantities[slot]));
+            }
+        }
+        return suggestions;
+    }
+    
+    // Replaces the whole index; used for the startup build
+    public synchronized void rebuild(Collection<ProductSummary> products) {
+        snapshot = merge(new Snapshot(new long[0], new String[0], new String[0], new int[0], new long[0]), products, Set.of());
+    }
+    
+    // Adds or replaces the given products and drops the removed ids, building a new snapshot
+    public synchronized void apply(Collection<ProductSummary> changed, Collection<Long> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        Set<Long> replaced = new HashSet<>(removed);
+        changed.forEach(product -> replaced.add(product.getId()));
+        snapshot = merge(snapshot, changed, replaced);
+    }
+    
+    private static Snapshot merge(Snapshot old, Collection<ProductSummary> changed, Set<Long> replaced) {
+        // Kept products first, in their old order, then the changed ones
+        int[] newSlot = new int[old.productIds.length];
+        int kept = 0;
+        for (int slot = 0; slot < old.productIds.length; slot++) {
+            newSlot[slot] = replaced.contains(old.productIds[slot]) ? -1 : kept++;
+        }
+        int total = kept + changed.size();
+        long[] productIds = new long[total];
+        String[] names = new String[total];
+        String[] keys = new String[total];
+        int[] quantities = new int[total];
+        for (int slot = 0; slot < old.productIds.length; slot++) {
+            int target = newSlot[slot];
+            if (target >= 0) {
+                productIds[target] = old.productIds[slot];
+                names[target] = old.names[slot];
+                keys[target] = old.keys[slot];
+                quantities[target] = old.quantities[slot];
+            }
+        }
+        Map<Long, Integer> changedSlots = new HashMap<>();
+        int next = kept;
+        for (ProductSummary product : changed) {
+            Integer slot = changedSlots.get(product.getId());
+            if (slot == null) {
+                slot = next++;
+                changedSlots.put(product.getId(), slot);
+            }
+            productIds[slot] = product.getId();
+            names[slot] = product.getName();
+            keys[slot] = Tokenizer.normalize(product.getName());
+            quantities[slot] = product.getQuantity() != null ? product.getQuantity() : 0;
+        }
+        if (next < total) {
+            // The same id appeared more than once in changed
+            productIds = Arrays.copyOf(productIds, next);
+            names = Arrays.copyOf(names, next);
+            keys = Arrays.copyOf(keys, next);
+            quantities = Arrays.copyOf(quantities, next);
+        }
+        
+        // Old entries keep their relative order; only the new ones need sorting before the merge
+        long[] oldEntries = new long[old.entries.length];
+        int oldCount = 0;
+        for (long entry : old.entries) {
+            int target = newSlot[slot(entry)];
+            if (target >= 0) {
+                oldEntries[oldCount++] = pack(target, offset(entry));
+            }
+        }
+        long[] newEntries = new long[0];
+        int newCount = 0;
+        for (int slot = kept; slot < next; slot++) {
+            for (int offset : wordStarts(keys[slot])) {
+                if (newCount == newEntries.length) {
+                    newEntries = Arrays.copyOf(newEntries, Math.max(16, newCount * 2));
+                }
+                newEntries[newCount++] = pack(slot, offset);
+            }
+        }
+        
+        Snapshot shape = new Snapshot(productIds, names, keys, quantities, new long[0]);
+        sort(shape, newEntries, newCount);
+        long[] entries = new long[oldCount + newCount];
+        int i = 0, j = 0, k = 0;
+        while (i < oldCount && j < newCount) {
+            entries[k++] = shape.compare(oldEntries[i], newEntries[j]) <= 0 ? oldEntries[i++] : newEntries[j++];
+        }
+        while (i < oldCount) {
+            entries[k++] = oldEntries[i++];
+        }
+        while (j < newCount) {
+            entries[k++] = newEntries[j++];
+        }
+        return new Snapshot(productIds, names, keys, quantities, entries);
+    }
+    
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < key.length() && i <= MAX_OFFSET; i++) {
+            if (Character.isLetterOrDigit(key.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1)))) {
+                offsets.add(i);
+            }
+        }
+        return offsets;
+    }
+    
+    // First entry whose text is >= probe, or with past set, the first whose text no longer starts with it
+    private static int lowerBound(Snapshot snapshot, String probe, boolean past) {
+        int low = 0;
+        int high = snapshot.entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long entry = snapshot.entries[mid];
+            String key = snapshot.keys[slot(entry)];
+            int offset = offset(entry);
+            boolean before = past
+                    ? compareText(key, offset, probe, 0) < 0 || key.startsWith(probe, offset)
+                    : compareText(key, offset, probe, 0) < 0;
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static void collect(Snapshot snapshot, int node, int nodeFrom, int nodeTo, int from, int to,
+                                PriorityQueue<Integer> nodes) {
+        if (nodeTo <= from || to <= nodeFrom) {
+            return;
+        }
+        if (from <= nodeFrom && nodeTo <= to) {
+            nodes.add(node);
+            return;
+        }
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        collect(snapshot, 2 * node, nodeFrom, middle, from, to, nodes);
+        collect(snapshot, 2 * node + 1, middle, nodeTo, from, to, nodes);
+    }
+    
+    private static int compareText(String a, int aOffset, String b, int bOffset) {
+        int length = Math.min(a.length() - aOffset, b.length() - bOffset);
+        for (int i = 0; i < length; i++) {
+            int difference = a.charAt(aOffset + i) - b.charAt(bOffset + i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return (a.length() - aOffset) - (b.length() - bOffset);
+    }
+    
+    // Merge sort, since there is no primitive sort that takes a comparator
+    private static void sort(Snapshot snapshot, long[] entries, int count) {
+        long[] buffer = new long[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int from = 0; from < count - width; from += 2 * width) {
+                int middle = from + width;
+                int to = Math.min(from + 2 * width, count);
+                int i = from, j = middle, k = from;
+                while (i < middle && j < to) {
+                    buffer[k++] = snapshot.compare(entries[i], entries[j]) <= 0 ? entries[i++] : entries[j++];
+                }
+                while (i < middle) {
+                    buffer[k++] = entries[i++];
+                }
+                while (j < to) {
+                    buffer[k++] = entries[j++];
+                }
+                System.arraycopy(buffer, from, entries, from, to - from);
+            }
+        }
+    }
+    
+    private static long pack(int slot, int offset) {
+        return (long) slot << OFFSET_BITS | offset;
+    }
+    
+    private static int slot(long entry) {
+        return (int) (entry >>> OFFSET_BITS);
+    }
+    
+    private static int offset(long entry) {
+        return (int) (entry & MAX_OFFSET);
+    }
+}
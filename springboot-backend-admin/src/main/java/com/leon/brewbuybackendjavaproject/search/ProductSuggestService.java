@@ -0,0 +1,152 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSuggestion;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the type-ahead index in step with the catalog. The build and all refreshes
+ * run on one thread, so a refresh queued during the startup build runs after it and
+ * rereads the rows the build may have seen stale. Bursts of product changes are
+ * coalesced into one new snapshot per refresh delay. Stock-only changes wait for
+ * the longer stock delay, since every order moves stock and each refresh rebuilds
+ * the snapshot; a catalog change arriving meanwhile brings the refresh forward.
+ */
+@Service
+public class ProductSuggestService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestService.class);
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${brewbuy.products.suggest.refresh-delay:200ms}")
+    private Duration refreshDelay;
+    
+    @Value("${brewbuy.products.suggest.stock-refresh-delay:5s}")
+    private Duration stockRefreshDelay;
+    
+    private final ProductSuggestIndex index = new ProductSuggestIndex();
+    
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-suggest");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Set<Long> pending = new HashSet<>();
+    private long refreshDueAt;    // nanoTime of the next scheduled refresh, 0 when none
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        executor.execute(this::build);
+    }
+    
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            List<ProductSummary> products = transactionTemplate.execute(status -> {
+                try (Stream<ProductSummary> rows = productRepository.streamAllSummaries()) {
+                    return rows.collect(Collectors.toList());
+                }
+            });
+            index.rebuild(products);
+            ready = true;
+            log.info("Product suggest index built with {} products in {} ms",
+                    index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Could not build the product suggest index", e);
+        }
+    }
+    
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Duration delay = event.isStockOnly() ? stockRefreshDelay : refreshDelay;
+        synchronized (pending) {
+            pending.addAll(event.getChangedIds());
+            pending.addAll(event.getDeletedIds());
+            if (!pending.isEmpty()) {
+                scheduleRefresh(delay);
+            }
+        }
+    }
+    
+    // Caller holds the pending lock; a refresh already due sooner covers this one
+    private void scheduleRefresh(Duration delay) {
+        long dueAt = System.nanoTime() + delay.toNanos();
+        if (refreshDueAt != 0 && refreshDueAt - dueAt <= 0) {
+            return;
+        }
+        refreshDueAt = dueAt;
+        executor.schedule(this::refresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    private void refresh() {
+        List<Long> ids;
+        synchronized (pending) {
+            // An earlier refresh brought forward may already have taken the ids
+            if (pending.isEmpty()) {
+                return;
+            }
+            ids = new ArrayList<>(pending);
+            pending.clear();
+            refreshDueAt = 0;
+        }
+        try {
+            // Deleted ids simply come back missing
+            List<ProductSummary> changed = productRepository.findSummariesByIdIn(ids);
+            Set<Long> found = changed.stream().map(ProductSummary::getId).collect(Collectors.toSet());
+            List<Long> removed = ids.stream().filter(id -> !found.contains(id)).collect(Collectors.toList());
+            index.apply(changed, removed);
+        } catch (RuntimeException e) {
+            log.error("Could not refresh the product suggest index for {} products, retrying in {}",
+                    ids.size(), stockRefreshDelay, e);
+            // Put the ids back so the retry rereads them with whatever changed since
+            synchronized (pending) {
+                pending.addAll(ids);
+                scheduleRefresh(stockRefreshDelay);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return index.suggest(prefix, limit);
+    }
+}
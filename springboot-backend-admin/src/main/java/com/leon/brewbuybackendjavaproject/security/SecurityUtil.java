@@ -1,5 +1,7 @@
 package com.leon.brewbuybackendjavaproject.security;
 
+import com.leon.brewbuybackendjavaproject.Service.AdminUserService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -7,6 +9,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class SecurityUtil {
     
+    @Autowired
+    private AdminUserService adminUserService;
+    
     public String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()) {
@@ -14,4 +19,9 @@ public class SecurityUtil {
         }
         return null;
     }
+    
+    public boolean isCurrentUserAdmin() {
+        String username = getCurrentUsername();
+        return username != null && adminUserService.adminUserExists(username);
+    }
 }
\ No newline at end of file
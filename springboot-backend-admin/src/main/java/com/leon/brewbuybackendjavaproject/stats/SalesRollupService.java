@@ -0,0 +1,296 @@
+package com.leon.brewbuybackendjavaproject.stats;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.OrderStatusRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the sales rollups read by /api/admin/stats: order_sales_daily holds
+ * the orders created per day and status with their total, product_sales_daily the
+ * units and revenue per product and day, cancelled orders left out.
+ *
+ * OrderService reports every order it creates, moves or deletes. The change to
+ * the rollups is added to an in-memory buffer once the order's transaction has
+ * committed, and a scheduled flush adds the buffered net deltas to the tables in
+ * one transaction of upserts. Checkouts therefore never wait on a lock of the
+ * day's rollup row, and the rollups trail the orders by up to a flush interval.
+ *
+ * Deltas still in the buffer are lost if the process dies, so a nightly job
+ * rebuilds the recent days from the orders themselves.
+ */
+@Service
+public class SalesRollupService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    
+    private static final String UPSERT_ORDER_SALES_SQL =
+            "INSERT INTO order_sales_daily (sales_date, status, order_count, revenue) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), revenue = revenue + VALUES(revenue)";
+    private static final String UPSERT_PRODUCT_SALES_SQL =
+            "INSERT INTO product_sales_daily (sales_date, product_id, units, revenue) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${brewbuy.stats.reconcile-days:7}")
+    private int reconcileDays;
+    
+    // A rollup row: a day and a status or product id
+    private static final class Key implements Comparable<Key> {
+        final LocalDate date;
+        final Comparable<?> dimension;
+        
+        Key(LocalDate date, Comparable<?> dimension) {
+            this.date = date;
+            this.dimension = dimension;
+        }
+        
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compareTo(Key other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : ((Comparable) dimension).compareTo(other.dimension);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && date.equals(key.date) && dimension.equals(key.dimension);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(date, dimension);
+        }
+    }
+    
+    // What to add to a rollup row: orders or units, and revenue
+    private static final class Amount {
+        final long count;
+        final BigDecimal revenue;
+        
+        Amount(long count, BigDecimal revenue) {
+            this.count = count;
+            this.revenue = revenue;
+        }
+        
+        Amount plus(Amount other) {
+            return new Amount(count + other.count, revenue.add(other.revenue));
+        }
+        
+        boolean isZero() {
+            return count == 0 && revenue.signum() == 0;
+        }
+    }
+    
+    // The changes of one transaction, applied to the buffer only if it commits
+    private static final class Changes {
+        final Map<Key, Amount> orders = new HashMap<>();
+        final Map<Key, Amount> products = new HashMap<>();
+        
+        void order(LocalDate date, OrderStatus status, int sign, BigDecimal total) {
+            orders.merge(new Key(date, status), new Amount(sign, total.multiply(BigDecimal.valueOf(sign))), Amount::plus);
+        }
+        
+        void line(LocalDate date, Long productId, int sign, int quantity, BigDecimal price) {
+            BigDecimal revenue = price.multiply(BigDecimal.valueOf((long) sign * quantity));
+            products.merge(new Key(date, productId), new Amount((long) sign * quantity, revenue), Amount::plus);
+        }
+        
+        void items(LocalDate date, List<OrderItem> items, int sign) {
+            for (OrderItem item : items) {
+                line(date, item.getProductId(), sign, item.getQuantity(), item.getPrice());
+            }
+        }
+    }
+    
+    private final Map<Key, Amount> orderDeltas = new ConcurrentHashMap<>();
+    private final Map<Key, Amount> productDeltas = new ConcurrentHashMap<>();
+    
+    public void ordersCreated(List<Order> orders) {
+        Changes changes = new Changes();
+        for (Order order : orders) {
+            LocalDate date = order.getCreatedAt().toLocalDate();
+            changes.order(date, order.getStatus(), 1, order.getTotalAmount());
+            if (order.getStatus() != OrderStatus.CANCELLED) {
+                changes.items(date, order.getOrderItems(), 1);
+            }
+        }
+        afterCommit(changes);
+    }
+    
+    // order is already in its new status, with its items loaded
+    public void statusChanged(Order order, OrderStatus from) {
+        Changes changes = new Changes();
+        LocalDate date = order.getCreatedAt().toLocalDate();
+        changes.order(date, from, -1, order.getTotalAmount());
+        changes.order(date, order.getStatus(), 1, order.getTotalAmount());
+        if (order.getStatus() == OrderStatus.CANCELLED && from != OrderStatus.CANCELLED) {
+            changes.items(date, order.getOrderItems(), -1);
+        }
+        afterCommit(changes);
+    }
+    
+    // Bulk moves; rows hold the statuses the orders were in. Runs in the moving transaction
+    public void statusesChanged(List<OrderStatusRow> rows, OrderStatus to) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Changes changes = new Changes();
+        Map<Long, LocalDate> cancelled = new HashMap<>();
+        for (OrderStatusRow row : rows) {
+            LocalDate date = row.getCreatedAt().toLocalDate();
+            changes.order(date, row.getStatus(), -1, row.getTotalAmount());
+            changes.order(date, to, 1, row.getTotalAmount());
+            if (to == OrderStatus.CANCELLED && row.getStatus() != OrderStatus.CANCELLED) {
+                cancelled.put(row.getId(), date);
+            }
+        }
+        
+        // The items are not loaded on this path; their lines come in one query
+        if (!cancelled.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(cancelled.size(), "?"));
+            jdbcTemplate.query("SELECT order_id, product_id, quantity, price FROM order_items WHERE order_id IN (" + placeholders + ")",
+                    row -> {
+                        changes.line(cancelled.get(row.getLong(1)), row.getLong(2), -1, row.getInt(3), row.getBigDecimal(4));
+                    }, cancelled.keySet().toArray());
+        }
+        afterCommit(changes);
+    }
+    
+    // order still has its items loaded
+    public void orderDeleted(Order order) {
+        Changes changes = new Changes();
+        LocalDate date = order.getCreatedAt().toLocalDate();
+        changes.order(date, order.getStatus(), -1, order.getTotalAmount());
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            changes.items(date, order.getOrderItems(), -1);
+        }
+        afterCommit(changes);
+    }
+    
+    private void afterCommit(Changes changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buffer(changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                buffer(changes);
+            }
+        });
+    }
+    
+    private void buffer(Changes changes) {
+        changes.orders.forEach((key, amount) -> orderDeltas.merge(key, amount, Amount::plus));
+        changes.products.forEach((key, amount) -> productDeltas.merge(key, amount, Amount::plus));
+    }
+    
+    @Scheduled(initialDelayString = "${brewbuy.stats.flush-interval:PT1S}",
+               fixedDelayString = "${brewbuy.stats.flush-interval:PT1S}")
+    public synchronized void flush() {
+        Map<Key, Amount> orders = drain(orderDeltas);
+        Map<Key, Amount> products = drain(productDeltas);
+        if (orders.isEmpty() && products.isEmpty()) {
+            return;
+        }
+        
+        // Rows in key order, so two instances flushing at once lock them in the same order
+        List<Object[]> orderArgs = new ArrayList<>(orders.size());
+        orders.forEach((key, amount) -> orderArgs.add(new Object[] {
+                Date.valueOf(key.date), ((OrderStatus) key.dimension).name(), amount.count, amount.revenue}));
+        List<Object[]> productArgs = new ArrayList<>(products.size());
+        products.forEach((key, amount) -> productArgs.add(new Object[] {
+                Date.valueOf(key.date), key.dimension, amount.count, amount.revenue}));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!orderArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_ORDER_SALES_SQL, orderArgs);
+                }
+                if (!productArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SALES_SQL, productArgs);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Back into the buffer for the next flush
+            log.error("Could not flush sales rollups", e);
+            orders.forEach((key, amount) -> orderDeltas.merge(key, amount, Amount::plus));
+            products.forEach((key, amount) -> productDeltas.merge(key, amount, Amount::plus));
+        }
+    }
+    
+    // Removes each entry atomically, so a delta merged meanwhile lands in a fresh entry for the next flush
+    private static Map<Key, Amount> drain(Map<Key, Amount> deltas) {
+        Map<Key, Amount> drained = new TreeMap<>();
+        for (Key key : deltas.keySet()) {
+            Amount amount = deltas.remove(key);
+            if (amount != null && !amount.isZero()) {
+                drained.put(key, amount);
+            }
+        }
+        return drained;
+    }
+    
+    @Scheduled(cron = "${brewbuy.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileRecent() {
+        LocalDate today = LocalDate.now();
+        reconcile(today.minusDays(reconcileDays - 1), today);
+    }
+    
+    /**
+     * Rebuilds the rollups of the days from..to (inclusive) from orders and
+     * order_items. An order committed while this runs may be counted twice until
+     * the next rebuild, when its delta was still on its way to the buffer.
+     */
+    public synchronized void reconcile(LocalDate from, LocalDate to) {
+        flush();
+        Date first = Date.valueOf(from);
+        Date last = Date.valueOf(to);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Statuses folded the way OrderStatusConverter reads them, for rows from before the enum
+            jdbcTemplate.update("DELETE FROM order_sales_daily WHERE sales_date BETWEEN ? AND ?", first, last);
+            jdbcTemplate.update("INSERT INTO order_sales_daily (sales_date, status, order_count, revenue) "
+                    + "SELECT CAST(created_at AS DATE), UPPER(TRIM(status)), COUNT(*), SUM(total_amount) FROM orders "
+                    + "WHERE created_at >= ? AND created_at < ? GROUP BY CAST(created_at AS DATE), UPPER(TRIM(status))",
+                    start, end);
+            jdbcTemplate.update("DELETE FROM product_sales_daily WHERE sales_date BETWEEN ? AND ?", first, last);
+            jdbcTemplate.update("INSERT INTO product_sales_daily (sales_date, product_id, units, revenue) "
+                    + "SELECT CAST(o.created_at AS DATE), i.product_id, SUM(i.quantity), SUM(i.quantity * i.price) "
+                    + "FROM orders o JOIN order_items i ON i.order_id = o.id "
+                    + "WHERE o.created_at >= ? AND o.created_at < ? AND UPPER(TRIM(o.status)) <> 'CANCELLED' "
+                    + "GROUP BY CAST(o.created_at AS DATE), i.product_id", start, end);
+        });
+        log.info("Rebuilt sales rollups from {} to {}", from, to);
+    }
+}
@@ -0,0 +1,68 @@
+package com.leon.brewbuybackendjavaproject.stats;
+
+import com.leon.brewbuybackendjavaproject.Model.DailyOrderSales;
+import com.leon.brewbuybackendjavaproject.Repo.DailyOrderSalesRepository;
+import com.leon.brewbuybackendjavaproject.Repo.DailyProductSalesRepository;
+import com.leon.brewbuybackendjavaproject.dto.response.DailySalesResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSalesResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.SalesStatsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dashboard figures, read off the rollups only: a range costs one row per day and status, whatever the order volume
+@Service
+public class SalesStatsService {
+    
+    @Autowired
+    private DailyOrderSalesRepository dailyOrderSalesRepository;
+    
+    @Autowired
+    private DailyProductSalesRepository dailyProductSalesRepository;
+    
+    @Value("${brewbuy.stats.max-days:366}")
+    private int maxDays;
+    
+    public SalesStatsResponse getSales(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        Map<LocalDate, DailySalesResponse> days = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.put(date, new DailySalesResponse(date));
+        }
+        for (DailyOrderSales row : dailyOrderSalesRepository.findBySalesDateBetweenOrderBySalesDate(from, to)) {
+            days.get(row.getSalesDate()).add(row.getStatus(), row.getOrderCount(), row.getRevenue());
+        }
+        
+        SalesStatsResponse response = new SalesStatsResponse(from, to);
+        for (DailySalesResponse day : days.values()) {
+            response.setOrders(response.getOrders() + day.getOrders());
+            response.setRevenue(response.getRevenue().add(day.getRevenue()));
+            response.getDays().add(day);
+        }
+        return response;
+    }
+    
+    public List<ProductSalesResponse> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to);
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        return dailyProductSalesRepository.findTopSellers(from, to, PageRequest.of(0, limit));
+    }
+    
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("At most " + maxDays + " days per request");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.leon.brewbuybackendjavaproject.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque continuation tokens for keyset pagination: each part is Base64url encoded and joined with '.'
+public final class CursorCodec {
+    
+    private CursorCodec() {}
+    
+    public static String encode(String... parts) {
+        StringBuilder token = new StringBuilder();
+        for (String part : parts) {
+            if (token.length() > 0) {
+                token.append('.');
+            }
+            token.append(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(part.getBytes(StandardCharsets.UTF_8)));
+        }
+        return token.toString();
+    }
+    
+    public static String[] decode(String token, int expectedParts) {
+        String[] encoded = token.split("\\.", -1);
+        if (encoded.length != expectedParts) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        String[] parts = new String[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            parts[i] = new String(Base64.getUrlDecoder().decode(encoded[i]), StandardCharsets.UTF_8);
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,131 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.security.JwtUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The exports stream from H2 with the same fetch size MySQL uses for its server-side cursor
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ExportControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@AfterEach
+	void cleanUp() {
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+	}
+
+	private Product product(String name) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(new BigDecimal("3.50"));
+		product.setQuantity(10);
+		return productRepository.save(product);
+	}
+
+	private Order order(long userId, int items) {
+		Order order = new Order(userId, new BigDecimal("7.00"), OrderStatus.CONFIRMED);
+		List<OrderItem> lines = new ArrayList<>();
+		for (long productId = 1; productId <= items; productId++) {
+			lines.add(new OrderItem(order, productId, 2, new BigDecimal("3.50")));
+		}
+		order.setOrderItems(lines);
+		return orderRepository.save(order);
+	}
+
+	private String export(String path, String format) throws Exception {
+		MvcResult started = mvc.perform(get(path).param("format", format)
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("admin")))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", Matchers.containsString("attachment")))
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	@Test
+	void productsStreamAsCsvWithTheImportColumns() throws Exception {
+		product("Kenya AA");
+		product("Colombia, Huila");
+
+		List<String> lines = export("/api/admin/export/products", "csv").lines().toList();
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).isEqualTo("id,name,description,price,quantity,imageType,imageHash,imageUrl");
+		assertThat(lines.get(1)).contains("Kenya AA");
+		assertThat(lines.get(2)).contains("\"Colombia, Huila\"");
+	}
+
+	@Test
+	void ordersStreamAsOneNdjsonLinePerOrderWithItsItems() throws Exception {
+		Order two = order(1L, 2);
+		Order none = order(2L, 0);
+		Order three = order(1L, 3);
+
+		List<String> lines = export("/api/admin/export/orders", "ndjson").lines().toList();
+
+		assertThat(lines).hasSize(3);
+		assertThat(lines).map(line -> ((Number) JsonPath.read(line, "$.id")).longValue())
+				.containsExactly(two.getId(), none.getId(), three.getId());
+		assertThat(lines).map(line -> (Integer) JsonPath.read(line, "$.items.length()"))
+				.containsExactly(2, 0, 3);
+		assertThat((String) JsonPath.read(lines.get(0), "$.status")).isEqualTo("CONFIRMED");
+	}
+
+	@Test
+	void ordersCsvHasALinePerItem() throws Exception {
+		order(1L, 2);
+		order(2L, 0);
+
+		// Header, two item lines and one line for the order without items
+		assertThat(export("/api/admin/export/orders", "csv").lines()).hasSize(4);
+	}
+
+	@Test
+	void refusesNonAdminsAndUnknownFormats() throws Exception {
+		mvc.perform(get("/api/admin/export/orders").header("Authorization", "Bearer " + jwtUtil.generateToken("customer")))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/api/admin/export/orders").param("format", "xml")
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("admin")))
+				.andExpect(status().isBadRequest());
+	}
+}
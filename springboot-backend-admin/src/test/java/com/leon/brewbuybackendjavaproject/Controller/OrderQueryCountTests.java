@@ -0,0 +1,146 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Model.User;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.UserRepository;
+import com.leon.brewbuybackendjavaproject.security.JwtUtil;
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.leon.brewbuybackendjavaproject.Controller.OrderQueryCountTests$StatementCounter"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class OrderQueryCountTests {
+
+	// Counts the SQL Hibernate sends from the test thread, which is the one MockMvc runs requests on
+	public static class StatementCounter implements StatementInspector {
+
+		static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+		@Override
+		public String inspect(String sql) {
+			COUNT.get()[0]++;
+			return sql;
+		}
+	}
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private String customerWithOrders(String username, int orders) {
+		User user = userRepository.save(new User(username, username + "@example.com", "secret"));
+		for (int i = 0; i < orders; i++) {
+			Order order = new Order(user.getId(), new BigDecimal("6.00"), OrderStatus.PENDING);
+			List<OrderItem> items = new ArrayList<>();
+			for (long productId = 1; productId <= 3; productId++) {
+				OrderItem item = new OrderItem(order, productId, 1, new BigDecimal("2.00"));
+				items.add(item);
+			}
+			order.setOrderItems(items);
+			orderRepository.save(order);
+		}
+		return "Bearer " + jwtUtil.generateToken(username);
+	}
+
+	private int statementsForMyOrders(String token, int expectedOrders) throws Exception {
+		StatementCounter.COUNT.get()[0] = 0;
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(expectedOrders))
+				.andExpect(jsonPath("$[0].items.length()").value(3));
+		return StatementCounter.COUNT.get()[0];
+	}
+
+	@Test
+	void myOrdersRunsTheSameStatementsForOneOrderAndForMany() throws Exception {
+		int one = statementsForMyOrders(customerWithOrders("one-order", 1), 1);
+		int many = statementsForMyOrders(customerWithOrders("many-orders", 20), 20);
+
+		// The user lookup, the page of ids and one query for those orders with their items
+		assertThat(one).isEqualTo(3);
+		assertThat(many).isEqualTo(one);
+	}
+
+	@Test
+	void myOrdersPagesNewestFirstWithoutGapsOrRepeats() throws Exception {
+		String token = customerWithOrders("pager", 7);
+		List<Long> expected = orderRepository.findByUserId(userRepository.findByUsername("pager").orElseThrow().getId())
+				.stream().map(Order::getId).sorted(Comparator.reverseOrder()).toList();
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			MockHttpServletResponse response = mvc.perform(get("/api/orders/user/me").header("Authorization", token)
+							.param("limit", "3").param("status", "PENDING").param("cursor", cursor))
+					.andExpect(status().isOk())
+					.andReturn().getResponse();
+			List<Number> ids = JsonPath.read(response.getContentAsString(), "$[*].id");
+			ids.forEach(id -> seen.add(id.longValue()));
+			cursor = response.getHeader("X-Next-Cursor");
+		} while (cursor != null);
+
+		assertThat(seen).isEqualTo(expected);
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token).param("status", "SHIPPED"))
+				.andExpect(jsonPath("$.length()").value(0));
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token).param("cursor", "not-a-cursor"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void myOrdersWithoutLimitOrCursorReturnsTheWholeHistory() throws Exception {
+		String token = customerWithOrders("legacy-client", 25);
+
+		// More than the default page, in one response and without a cursor
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("X-Next-Cursor"))
+				.andExpect(jsonPath("$.length()").value(25));
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token).param("limit", "20"))
+				.andExpect(header().exists("X-Next-Cursor"))
+				.andExpect(jsonPath("$.length()").value(20));
+	}
+
+	@Test
+	void myOrdersExposesTheCursorHeaderToBrowsers() throws Exception {
+		String token = customerWithOrders("browser", 2);
+
+		mvc.perform(get("/api/orders/user/me").header("Authorization", token).header("Origin", "https://shop.example.com")
+						.param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("X-Next-Cursor"))
+				.andExpect(header().string("Access-Control-Expose-Headers", "X-Next-Cursor"));
+	}
+}
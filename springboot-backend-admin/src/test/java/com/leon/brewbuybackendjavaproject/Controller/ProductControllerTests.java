@@ -0,0 +1,126 @@
+package com.leon.brewbuybackendjavaproject.Controller;
+
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.image.ImageStore;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import com.leon.brewbuybackendjavaproject.image.StagedImage;
+import com.leon.brewbuybackendjavaproject.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "brewbuy.products.import.max-bytes=64")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@MockImageStorage
+class ProductControllerTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ImageStore imageStore;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@AfterEach
+	void cleanUp() {
+		productRepository.deleteAll();
+	}
+
+	private static String product(String imageBase64, String imageType) {
+		return "{\"name\":\"Kenya AA\",\"price\":3.50,\"quantity\":10,"
+				+ "\"imageBase64\":\"" + imageBase64 + "\",\"imageType\":\"" + imageType + "\"}";
+	}
+
+	@Test
+	void base64ImageTypeComesFromTheBytesNotTheRequest() throws Exception {
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB), "png", png);
+		when(imageStore.put(any(StagedImage.class))).thenReturn("hash");
+
+		mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+						.content(product(Base64.getEncoder().encodeToString(png.toByteArray()), "text/html")))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.imageType").value("image/png"));
+	}
+
+	@Test
+	void refusesABase64ImageThatIsNotAnImage() throws Exception {
+		String html = Base64.getEncoder().encodeToString("<script>alert(1)</script>".getBytes(StandardCharsets.US_ASCII));
+
+		mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+						.content(product(html, "image/png")))
+				.andExpect(status().isUnsupportedMediaType());
+		mvc.perform(post("/api/products/batch").contentType(MediaType.APPLICATION_JSON)
+						.content("[" + product(html, "image/png") + "]"))
+				.andExpect(status().isUnsupportedMediaType());
+		mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+						.content(product("not base64!", "image/png")))
+				.andExpect(status().isBadRequest());
+
+		assertThat(productRepository.count()).isZero();
+	}
+
+	@Test
+	void servesLegacyClientTypesAsOctetStream() throws Exception {
+		Product product = new Product();
+		product.setName("Legacy");
+		product.setPrice(new BigDecimal("3.50"));
+		product.setQuantity(10);
+		product.setImageHash("legacy");
+		product.setImageType("text/html");
+		product = productRepository.save(product);
+		when(imageStore.open("legacy")).thenReturn(Optional.of(new ByteArrayResource("<script>alert(1)</script>".getBytes(StandardCharsets.US_ASCII))));
+
+		mvc.perform(get("/api/products/{id}/image", product.getId()))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "application/octet-stream"))
+				.andExpect(header().string("X-Content-Type-Options", "nosniff"))
+				.andExpect(header().string("Content-Disposition", "inline"));
+	}
+
+	@Test
+	void importIsForAdminsAndCapped() throws Exception {
+		String row = "{\"name\":\"Kenya AA\",\"price\":3.50,\"quantity\":10}\n";
+
+		mvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(row))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(row)
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("customer")))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/api/products/import/{jobId}", "any"))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/api/products/import").contentType("application/x-ndjson").content(row + row)
+						.header("Authorization", "Bearer " + jwtUtil.generateToken("admin")))
+				.andExpect(status().isPayloadTooLarge());
+	}
+}
@@ -0,0 +1,221 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.dto.request.AdminOrderSearchQuery;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderSummaryResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.leon.brewbuybackendjavaproject.Repo.AdminOrderSearchTests$LastSearch"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdminOrderSearchTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+	private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+	// Keeps the SQL of the last search, which has the orders table as its root
+	public static class LastSearch implements StatementInspector {
+		static volatile String sql;
+
+		@Override
+		public String inspect(String statement) {
+			if (statement.startsWith("select") && statement.contains(" from orders ")) {
+				sql = statement;
+			}
+			return statement;
+		}
+	}
+
+	// What was seeded, to check the search against
+	private static final class Seeded {
+		final long id;
+		final long userId;
+		final OrderStatus status;
+		final LocalDateTime createdAt;
+		final BigDecimal totalAmount;
+		final List<Long> productIds = new ArrayList<>();
+
+		Seeded(long id, long userId, OrderStatus status, LocalDateTime createdAt, BigDecimal totalAmount) {
+			this.id = id;
+			this.userId = userId;
+			this.status = status;
+			this.createdAt = createdAt;
+			this.totalAmount = totalAmount;
+		}
+	}
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	// Seeded once for the class: ANALYZE commits, and the tests only read
+	private static final List<Seeded> seeded = new ArrayList<>();
+
+	// Enough orders, users and products that every filter is selective and the planner has a choice to make
+	@BeforeEach
+	void seed() {
+		if (!seeded.isEmpty()) {
+			return;
+		}
+		List<Object[]> orders = new ArrayList<>();
+		List<Object[]> items = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			// Every tenth order shares its timestamp with the one before, to exercise the id tie-break
+			LocalDateTime createdAt = START.plusMinutes(i - (i % 10 == 9 ? 1 : 0));
+			Seeded order = new Seeded(100_000 + i, i % 251, STATUSES[i % STATUSES.length], createdAt,
+					BigDecimal.valueOf(100 + (i * 37) % 10_000, 2));
+			orders.add(new Object[] {order.id, order.userId, order.totalAmount, order.status.name(), createdAt, createdAt, 0L});
+			for (int line = 0; line < 1 + i % 3; line++) {
+				long productId = (i * 7L + line * 13L) % 401;
+				order.productIds.add(productId);
+				items.add(new Object[] {order.id * 10 + line, order.id, productId, 1, new BigDecimal("1.00")});
+			}
+			// A repeated line of the same product
+			if (i % 50 == 0) {
+				order.productIds.add(order.productIds.get(0));
+				items.add(new Object[] {order.id * 10 + 9, order.id, order.productIds.get(0), 2, new BigDecimal("1.00")});
+			}
+			seeded.add(order);
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO orders (id, user_id, total_amount, status, created_at, updated_at, version) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?)", orders);
+		jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, quantity, price) VALUES (?, ?, ?, ?, ?)", items);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	private static Arguments filter(String name, Consumer<AdminOrderSearchQuery> filter, Predicate<Seeded> matches,
+									String index) {
+		return Arguments.of(name, filter, matches, index);
+	}
+
+	static Stream<Arguments> filters() {
+		LocalDateTime from = START.plusMinutes(1000);
+		LocalDateTime to = START.plusMinutes(1400);
+		BigDecimal min = new BigDecimal("10.00");
+		BigDecimal max = new BigDecimal("12.00");
+		return Stream.of(
+				filter("status", q -> q.setStatus(OrderStatus.SHIPPED),
+						o -> o.status == OrderStatus.SHIPPED, "IDX_ORDERS_STATUS_"),
+				filter("user", q -> q.setUserId(17L),
+						o -> o.userId == 17, "IDX_ORDERS_USER_"),
+				filter("user and status", q -> { q.setUserId(17L); q.setStatus(OrderStatus.CONFIRMED); },
+						o -> o.userId == 17 && o.status == OrderStatus.CONFIRMED, "IDX_ORDERS_USER_"),
+				filter("date range", q -> { q.setFrom(from); q.setTo(to); },
+						o -> !o.createdAt.isBefore(from) && o.createdAt.isBefore(to), "IDX_ORDERS_CREATED_ID"),
+				filter("status and date range", q -> { q.setStatus(OrderStatus.PENDING); q.setFrom(from); q.setTo(to); },
+						o -> o.status == OrderStatus.PENDING && !o.createdAt.isBefore(from) && o.createdAt.isBefore(to),
+						"IDX_ORDERS_STATUS_CREATED_ID"),
+				filter("amount range", q -> { q.setMinAmount(min); q.setMaxAmount(max); },
+						o -> o.totalAmount.compareTo(min) >= 0 && o.totalAmount.compareTo(max) <= 0, "IDX_ORDERS_TOTAL_AMOUNT"),
+				filter("product", q -> q.setProductId(42L),
+						o -> o.productIds.contains(42L), "IDX_ORDER_ITEMS_PRODUCT_ORDER"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("filters")
+	void everyFilterIsServedByAnIndex(String name, Consumer<AdminOrderSearchQuery> filter, Predicate<Seeded> matches,
+									  String index) {
+		AdminOrderSearchQuery query = new AdminOrderSearchQuery();
+		filter.accept(query);
+		query.setLimit(20);
+		orderRepository.searchOrders(query);
+
+		// H2 reports the index it reads in a comment on the table. It neither shows a backward index walk
+		// that saves the sort, as MySQL's EXPLAIN does, nor tells apart indexes that match the filter equally
+		// well, so only the leading column of the chosen index is checked for an equality filter
+		String plan = jdbcTemplate.queryForObject("EXPLAIN " + LastSearch.sql, String.class);
+		assertThat(plan).contains(index);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("filters")
+	void pagesThroughExactlyTheMatchingOrders(String name, Consumer<AdminOrderSearchQuery> filter, Predicate<Seeded> matches,
+											  String index) {
+		List<Long> expected = seeded.stream()
+				.filter(matches)
+				.sorted(Comparator.comparing((Seeded o) -> o.createdAt).thenComparing(o -> o.id).reversed())
+				.map(o -> o.id)
+				.toList();
+		assertThat(expected).isNotEmpty();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		List<Long> found = new ArrayList<>();
+		int pages = 0;
+		List<OrderSummaryResponse> page;
+		LocalDateTime afterCreatedAt = null;
+		Long afterId = null;
+		do {
+			AdminOrderSearchQuery query = new AdminOrderSearchQuery();
+			filter.accept(query);
+			query.setLimit(7);
+			query.setAfterCreatedAt(afterCreatedAt);
+			query.setAfterId(afterId);
+			page = orderRepository.searchOrders(query);
+			pages++;
+			for (OrderSummaryResponse order : page) {
+				found.add(order.getId());
+				afterCreatedAt = order.getCreatedAt();
+				afterId = order.getId();
+			}
+		} while (page.size() == 7);
+
+		assertThat(found).isEqualTo(expected);
+		// One statement per page and no entity ever loaded
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+	}
+
+	@Test
+	void filtersCombine() {
+		AdminOrderSearchQuery query = new AdminOrderSearchQuery();
+		query.setStatus(OrderStatus.PENDING);
+		query.setProductId(42L);
+		query.setMaxAmount(new BigDecimal("50.00"));
+		query.setLimit(1000);
+
+		List<Long> expected = seeded.stream()
+				.filter(o -> o.status == OrderStatus.PENDING && o.productIds.contains(42L)
+						&& o.totalAmount.compareTo(new BigDecimal("50.00")) <= 0)
+				.sorted(Comparator.comparing((Seeded o) -> o.createdAt).thenComparing(o -> o.id).reversed())
+				.map(o -> o.id)
+				.toList();
+		assertThat(expected).isNotEmpty();
+		assertThat(orderRepository.searchOrders(query)).extracting(OrderSummaryResponse::getId).isEqualTo(expected);
+	}
+}
@@ -0,0 +1,58 @@
+package com.leon.brewbuybackendjavaproject.Repo;
+
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class ProductBatchInsertTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void saveAllOfThousandProductsIsBatched() {
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Product product = new Product();
+			product.setName("Product " + i);
+			product.setDescription("Batch inserted product " + i);
+			product.setPrice(new BigDecimal("4.50"));
+			product.setQuantity(i);
+			products.add(product);
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		productRepository.saveAll(products);
+		entityManager.flush();
+
+		// One statement per batch of 50 plus the sequence calls, where IDENTITY
+		// needed a separate insert for every row
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(1000);
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(50);
+		assertThat(products).extracting(Product::getId).doesNotContainNull().doesNotHaveDuplicates();
+	}
+}
@@ -0,0 +1,140 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.impl.InventoryServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=50",
+		"spring.jpa.properties.hibernate.order_inserts=true",
+		"brewbuy.orders.batch.chunk-size=100",
+		"brewbuy.orders.batch.max-orders=300"
+})
+@ActiveProfiles("test")
+@MockImageStorage
+@Import({BatchOrderService.class, OrderServiceImpl.class, OrderPricingService.class, InventoryServiceImpl.class,
+		ProductServiceImpl.class, ProductCache.class, SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BatchOrderServiceTests {
+
+	private static final long USER = 9L;
+
+	@Autowired
+	private BatchOrderService batchOrderService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+	}
+
+	private Product product(int quantity) {
+		Product product = new Product();
+		product.setName("Till product");
+		product.setPrice(new BigDecimal("1.50"));
+		product.setQuantity(quantity);
+		return productRepository.save(product);
+	}
+
+	private static List<OrderItem> cart(Long productId, int quantity) {
+		List<OrderItem> items = new ArrayList<>();
+		items.add(new OrderItem(null, productId, quantity, null));
+		return items;
+	}
+
+	private int stock(Product product) {
+		return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+	}
+
+	@Test
+	void oneBadOrderDoesNotFailTheBatch() {
+		Product product = product(4);
+		List<List<OrderItem>> carts = List.of(
+				cart(product.getId(), 2),
+				cart(product.getId(), 0),
+				cart(-1L, 1),
+				cart(product.getId(), 2),
+				cart(product.getId(), 1),
+				new ArrayList<>());
+
+		List<OrderPlacement> placements = batchOrderService.createOrders(USER, carts);
+
+		assertThat(placements).extracting(OrderPlacement::getOutcome).containsExactly(
+				OrderPlacement.Outcome.CREATED,
+				OrderPlacement.Outcome.INVALID,
+				OrderPlacement.Outcome.INVALID,
+				OrderPlacement.Outcome.CREATED,
+				OrderPlacement.Outcome.OUT_OF_STOCK,
+				OrderPlacement.Outcome.INVALID);
+		assertThat(placements.get(0).getOrder().getTotalAmount()).isEqualByComparingTo("3.00");
+		assertThat(placements.get(4).getError()).isNotBlank();
+		assertThat(stock(product)).isZero();
+		assertThat(orderRepository.findByUserId(USER)).hasSize(2);
+	}
+
+	@Test
+	void aChunkIsInsertedInBatches() {
+		Product product = product(1000);
+		List<List<OrderItem>> carts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			carts.add(cart(product.getId(), 1));
+		}
+		batchOrderService.createOrders(USER, List.of(cart(product.getId(), 1)));
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		List<OrderPlacement> placements = batchOrderService.createOrders(USER, carts);
+
+		assertThat(placements).allMatch(placement -> placement.getOutcome() == OrderPlacement.Outcome.CREATED);
+		assertThat(stock(product)).isEqualTo(899);
+		// Far below the hundreds a loop over createOrder would prepare
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+	}
+
+	@Test
+	void refusesOversizedBatches() {
+		Product product = product(1000);
+		List<List<OrderItem>> carts = new ArrayList<>();
+		for (int i = 0; i < 301; i++) {
+			carts.add(cart(product.getId(), 1));
+		}
+		assertThatThrownBy(() -> batchOrderService.createOrders(USER, carts))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> batchOrderService.createOrders(USER, List.of()))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(stock(product)).isEqualTo(1000);
+	}
+}
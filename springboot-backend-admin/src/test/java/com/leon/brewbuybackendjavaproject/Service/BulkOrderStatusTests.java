@@ -0,0 +1,160 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.response.BulkOrderStatusResponse;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=500",
+		"brewbuy.orders.bulk.chunk-size=100"
+})
+@ActiveProfiles("test")
+@Import({BulkOrderStatusService.class, SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOrderStatusTests {
+
+	@Autowired
+	private BulkOrderStatusService bulkOrderStatusService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoBean
+	private InventoryService inventoryService;
+
+	@AfterEach
+	void cleanUp() {
+		orderRepository.deleteAllInBatch();
+	}
+
+	private List<Long> orders(int count, OrderStatus status, long userId) {
+		List<Order> orders = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			orders.add(new Order(userId, new BigDecimal("5.00"), status));
+		}
+		return orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+	}
+
+	private BulkOrderStatusRequest request(OrderStatus status) {
+		BulkOrderStatusRequest request = new BulkOrderStatusRequest();
+		request.setStatus(status);
+		return request;
+	}
+
+	@Test
+	void reportsAnOutcomeForEveryId() {
+		List<Long> confirmed = orders(250, OrderStatus.CONFIRMED, 1L);
+		List<Long> pending = orders(3, OrderStatus.PENDING, 1L);
+		List<Long> ids = new ArrayList<>(confirmed);
+		ids.addAll(pending);
+		ids.add(-1L);
+		ids.add(confirmed.get(0));
+
+		BulkOrderStatusRequest request = request(OrderStatus.SHIPPED);
+		request.setOrderIds(ids);
+		BulkOrderStatusResponse response = bulkOrderStatusService.apply(request);
+
+		assertThat(response.getUpdated()).containsExactlyInAnyOrderElementsOf(confirmed);
+		assertThat(response.getNotFound()).containsExactly(-1L);
+		assertThat(response.getRejected()).containsOnlyKeys(pending).containsValue(OrderStatus.PENDING);
+		assertThat(orderRepository.findAllById(confirmed))
+				.allSatisfy(order -> {
+					assertThat(order.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+					assertThat(order.getVersion()).isEqualTo(1);
+				});
+		assertThat(orderRepository.findAllById(pending)).allMatch(order -> order.getStatus() == OrderStatus.PENDING);
+	}
+
+	@Test
+	void runsTwoStatementsPerChunk() {
+		List<Long> ids = orders(1000, OrderStatus.CONFIRMED, 1L);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		BulkOrderStatusRequest request = request(OrderStatus.SHIPPED);
+		request.setOrderIds(ids);
+		assertThat(bulkOrderStatusService.apply(request).getUpdated()).hasSize(1000);
+
+		// Ten chunks of 100: one locking select and one update each
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(20);
+		verify(inventoryService, never()).releaseStock(anyList());
+	}
+
+	@Test
+	void filterMovesOnlyTheMatchingOrders() {
+		List<Long> mine = orders(230, OrderStatus.PENDING, 1L);
+		List<Long> confirmed = orders(5, OrderStatus.CONFIRMED, 1L);
+		List<Long> others = orders(20, OrderStatus.PENDING, 2L);
+
+		BulkOrderStatusRequest request = request(OrderStatus.CANCELLED);
+		request.setUserId(1L);
+		request.setCurrentStatus(OrderStatus.PENDING);
+		BulkOrderStatusResponse response = bulkOrderStatusService.apply(request);
+
+		assertThat(response.getUpdated()).containsExactlyElementsOf(mine);
+		Map<Long, OrderStatus> statuses = new HashMap<>();
+		orderRepository.findAll().forEach(order -> statuses.put(order.getId(), order.getStatus()));
+		assertThat(confirmed).allMatch(id -> statuses.get(id) == OrderStatus.CONFIRMED);
+		assertThat(others).allMatch(id -> statuses.get(id) == OrderStatus.PENDING);
+		// Each of the three chunks hands its stock back
+		verify(inventoryService, times(3)).releaseStock(anyList());
+	}
+
+	@Test
+	void emptyFilterNeedsAnExplicitAll() {
+		List<Long> confirmed = orders(5, OrderStatus.CONFIRMED, 1L);
+		List<Long> pending = orders(3, OrderStatus.PENDING, 2L);
+
+		BulkOrderStatusRequest request = request(OrderStatus.SHIPPED);
+		assertThatThrownBy(() -> bulkOrderStatusService.apply(request))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(orderRepository.findAllById(confirmed)).allMatch(order -> order.getStatus() == OrderStatus.CONFIRMED);
+
+		request.setAll(true);
+		assertThat(bulkOrderStatusService.apply(request).getUpdated()).containsExactlyElementsOf(confirmed);
+		assertThat(orderRepository.findAllById(pending)).allMatch(order -> order.getStatus() == OrderStatus.PENDING);
+	}
+
+	@Test
+	void rejectsMovesNoOrderCanMake() {
+		assertThatThrownBy(() -> bulkOrderStatusService.apply(request(OrderStatus.PENDING)))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		BulkOrderStatusRequest request = request(OrderStatus.SHIPPED);
+		request.setCurrentStatus(OrderStatus.PENDING);
+		assertThatThrownBy(() -> bulkOrderStatusService.apply(request))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,167 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.IdempotencyRecord;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.IdempotencyRecordRepository;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.impl.InventoryServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.dto.response.OrderResponse;
+import com.leon.brewbuybackendjavaproject.exception.IdempotencyKeyReuseException;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@MockImageStorage
+@Import({OrderIdempotencyService.class, OrderServiceImpl.class, OrderPricingService.class, InventoryServiceImpl.class,
+		ProductServiceImpl.class, ProductCache.class, SalesRollupService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIdempotencyTests {
+
+	private static final long USER = 3L;
+
+	@Autowired
+	private OrderIdempotencyService orderIdempotencyService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+
+	@AfterEach
+	void cleanUp() {
+		idempotencyRecordRepository.deleteAll();
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+	}
+
+	private Product product(int quantity) {
+		Product product = new Product();
+		product.setName("Retried product");
+		product.setPrice(new BigDecimal("3.00"));
+		product.setQuantity(quantity);
+		return productRepository.save(product);
+	}
+
+	private static List<OrderItem> cart(Product product, int quantity) {
+		return new ArrayList<>(List.of(new OrderItem(null, product.getId(), quantity, new BigDecimal("0.01"))));
+	}
+
+	private int stock(Product product) {
+		return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+	}
+
+	@Test
+	void retryReplaysTheFirstOrder() {
+		Product product = product(10);
+
+		OrderResponse first = orderIdempotencyService.createOrder(USER, "key-1", cart(product, 2));
+		OrderResponse retry = orderIdempotencyService.createOrder(USER, "key-1", cart(product, 2));
+
+		assertThat(retry.getId()).isEqualTo(first.getId());
+		assertThat(retry.getTotalAmount()).isEqualByComparingTo("6.00");
+		assertThat(orderRepository.count()).isEqualTo(1);
+		assertThat(stock(product)).isEqualTo(8);
+	}
+
+	@Test
+	void concurrentDuplicatesCreateOneOrder() throws Exception {
+		Product product = product(100);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<OrderResponse>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return orderIdempotencyService.createOrder(USER, "burst", cart(product, 1));
+				}));
+			}
+			start.countDown();
+			Long id = results.get(0).get().getId();
+			for (Future<OrderResponse> result : results) {
+				assertThat(result.get().getId()).isEqualTo(id);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(orderRepository.count()).isEqualTo(1);
+		assertThat(stock(product)).isEqualTo(99);
+	}
+
+	@Test
+	void storedKeyReplaysWithoutCreatingAnOrder() {
+		// As left behind by another instance, or by this one before its in-memory entry expired
+		IdempotencyRecord record = new IdempotencyRecord(USER, "from-db", "unused");
+		Product product = product(5);
+		OrderResponse first = orderIdempotencyService.createOrder(USER, "seed", cart(product, 1));
+		IdempotencyRecord seeded = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(USER, "seed").orElseThrow();
+		record.setRequestHash(seeded.getRequestHash());
+		record.setResponseBody(seeded.getResponseBody());
+		idempotencyRecordRepository.save(record);
+
+		OrderResponse replayed = orderIdempotencyService.createOrder(USER, "from-db", cart(product, 1));
+
+		assertThat(replayed.getId()).isEqualTo(first.getId());
+		assertThat(orderRepository.count()).isEqualTo(1);
+		assertThat(stock(product)).isEqualTo(4);
+	}
+
+	@Test
+	void keyReusedForAnotherOrderIsRefused() {
+		Product product = product(10);
+		orderIdempotencyService.createOrder(USER, "key-2", cart(product, 1));
+
+		assertThatThrownBy(() -> orderIdempotencyService.createOrder(USER, "key-2", cart(product, 3)))
+				.isInstanceOf(IdempotencyKeyReuseException.class);
+		// Another user's key of the same name is unrelated
+		orderIdempotencyService.createOrder(USER + 1, "key-2", cart(product, 3));
+		assertThat(orderRepository.count()).isEqualTo(2);
+	}
+
+	@Test
+	void failedAttemptIsNotRemembered() {
+		Product product = product(1);
+
+		assertThatThrownBy(() -> orderIdempotencyService.createOrder(USER, "key-3", cart(product, 2)))
+				.isInstanceOf(InsufficientStockException.class);
+		assertThat(idempotencyRecordRepository.count()).isZero();
+
+		product.setQuantity(5);
+		productService.updateProduct(product.getId(), product);
+		OrderResponse retry = orderIdempotencyService.createOrder(USER, "key-3", cart(product, 2));
+		assertThat(retry.getId()).isNotNull();
+		assertThat(stock(product)).isEqualTo(3);
+	}
+}
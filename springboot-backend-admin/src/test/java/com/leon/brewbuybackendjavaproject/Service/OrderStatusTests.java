@@ -0,0 +1,173 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.exception.InvalidOrderStatusException;
+import com.leon.brewbuybackendjavaproject.exception.OrderNotFoundException;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({OrderServiceImpl.class, SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusTests {
+
+	private static final long USER = 7L;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoBean
+	private OrderPricingService orderPricingService;
+
+	@MockitoBean
+	private InventoryService inventoryService;
+
+	private Long pendingOrder() {
+		return orderRepository.save(new Order(USER, new BigDecimal("5.00"), OrderStatus.PENDING)).getId();
+	}
+
+	@Test
+	void followsTheLifecycleAndBumpsTheVersion() {
+		Long id = pendingOrder();
+
+		assertThat(orderService.updateOrderStatus(id, USER, OrderStatus.CONFIRMED).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+		assertThat(orderService.updateOrderStatus(id, USER, OrderStatus.SHIPPED).getStatus()).isEqualTo(OrderStatus.SHIPPED);
+		Order delivered = orderService.updateOrderStatus(id, USER, OrderStatus.DELIVERED);
+
+		assertThat(delivered.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+		assertThat(delivered.getVersion()).isEqualTo(3);
+	}
+
+	@Test
+	void rejectsSkippedStepsAndCancellingAfterShipping() {
+		Long id = pendingOrder();
+
+		assertThatThrownBy(() -> orderService.updateOrderStatus(id, USER, OrderStatus.SHIPPED))
+				.isInstanceOfSatisfying(InvalidOrderStatusException.class,
+						e -> assertThat(e.getCurrent()).isEqualTo(OrderStatus.PENDING));
+
+		orderService.updateOrderStatus(id, USER, OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(id, USER, OrderStatus.SHIPPED);
+		assertThatThrownBy(() -> orderService.updateOrderStatus(id, USER, OrderStatus.CANCELLED))
+				.isInstanceOf(InvalidOrderStatusException.class);
+		assertThatThrownBy(() -> orderService.updateOrderStatus(id, USER, OrderStatus.PENDING))
+				.isInstanceOf(InvalidOrderStatusException.class);
+		assertThat(orderRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OrderStatus.SHIPPED);
+	}
+
+	@Test
+	void givesStockBackOnlyForOrdersStillHoldingIt() {
+		Long cancelled = pendingOrder();
+		orderService.updateOrderStatus(cancelled, USER, OrderStatus.CANCELLED);
+		verify(inventoryService, times(1)).releaseStock(anyList());
+
+		// Already given back by the cancellation
+		orderService.deleteOrder(cancelled, USER);
+		verify(inventoryService, times(1)).releaseStock(anyList());
+
+		Long confirmed = pendingOrder();
+		orderService.updateOrderStatus(confirmed, USER, OrderStatus.CONFIRMED);
+		orderService.deleteOrder(confirmed, USER);
+		verify(inventoryService, times(2)).releaseStock(anyList());
+	}
+
+	@Test
+	void keepsStockTakenForShippedOrders() {
+		Long id = pendingOrder();
+		orderService.updateOrderStatus(id, USER, OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(id, USER, OrderStatus.SHIPPED);
+		orderService.deleteOrder(id, USER);
+
+		verify(inventoryService, never()).releaseStock(anyList());
+	}
+
+	@Test
+	void readsStatusesWrittenAsFreeTextBeforeTheEnum() {
+		jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at, version) "
+				+ "VALUES (?, ?, 5.00, ' shipped', CURRENT_TIMESTAMP, 0)", 1_000_000L, USER);
+
+		assertThat(orderService.getOrderByIdAndUserId(1_000_000L, USER).getStatus()).isEqualTo(OrderStatus.SHIPPED);
+		assertThatThrownBy(() -> OrderStatus.fromStored("lost"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("'lost'");
+	}
+
+	@Test
+	void leavesOtherUsersOrdersAlone() {
+		Long id = pendingOrder();
+
+		assertThatThrownBy(() -> orderService.updateOrderStatus(id, USER + 1, OrderStatus.CANCELLED))
+				.isInstanceOf(OrderNotFoundException.class);
+		assertThat(orderRepository.findById(id).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+	}
+
+	@Test
+	void exactlyOneOfTwoRacingTransitionsWins() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 20; round++) {
+				Long id = pendingOrder();
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<OrderStatus>> results = new ArrayList<>();
+				for (OrderStatus target : List.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED)) {
+					results.add(pool.submit(() -> {
+						start.await();
+						try {
+							return orderService.updateOrderStatus(id, USER, target).getStatus();
+						} catch (InvalidOrderStatusException e) {
+							return null;
+						}
+					}));
+				}
+				start.countDown();
+
+				OrderStatus first = results.get(0).get();
+				OrderStatus second = results.get(1).get();
+				Order stored = orderRepository.findById(id).orElseThrow();
+				if (first != null && second != null) {
+					// Confirm went first and cancel then legitimately followed it
+					assertThat(stored.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+					assertThat(stored.getVersion()).isEqualTo(2);
+				} else {
+					assertThat(first != null ? first : second).isEqualTo(stored.getStatus());
+					assertThat(stored.getVersion()).isEqualTo(1);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
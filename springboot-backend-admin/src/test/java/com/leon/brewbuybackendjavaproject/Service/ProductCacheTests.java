@@ -0,0 +1,139 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTests {
+
+	private static Product product(long id, int quantity) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Product " + id);
+		product.setDescription("Description of product " + id);
+		product.setPrice(new BigDecimal("9.99"));
+		product.setQuantity(quantity);
+		return product;
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		ProductCache cache = new ProductCache(true, DataSize.ofMegabytes(1));
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<Optional<Product>>> results = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return cache.get(1L, id -> {
+						loads.incrementAndGet();
+						sleep(50);
+						return Optional.of(product(id, 5));
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<Optional<Product>> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cache.stats().missCount()).isEqualTo(1);
+		assertThat(cache.stats().hitCount()).isEqualTo(15);
+	}
+
+	@Test
+	void callersCannotModifyCachedState() {
+		ProductCache cache = new ProductCache(true, DataSize.ofMegabytes(1));
+		cache.put(product(1L, 5));
+
+		Product first = cache.get(1L, id -> Optional.empty()).orElseThrow();
+		first.setQuantity(0);
+
+		assertThat(cache.get(1L, id -> Optional.empty()).orElseThrow().getQuantity()).isEqualTo(5);
+	}
+
+	@Test
+	void readsAfterInvalidationSeeTheLatestWrite() throws Exception {
+		ProductCache cache = new ProductCache(true, DataSize.ofMegabytes(1));
+		AtomicReference<Product> database = new AtomicReference<>(product(1L, 0));
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService readers = Executors.newFixedThreadPool(8);
+		try {
+			for (int i = 0; i < 8; i++) {
+				readers.submit(() -> {
+					while (running.get()) {
+						cache.get(1L, id -> Optional.of(database.get()));
+					}
+				});
+			}
+			// Same order as ProductServiceImpl: write the row, then invalidate
+			for (int version = 1; version <= 2_000; version++) {
+				database.set(product(1L, version));
+				cache.invalidate(1L);
+				assertThat(cache.get(1L, id -> Optional.of(database.get())).orElseThrow().getQuantity())
+						.isGreaterThanOrEqualTo(version);
+			}
+		} finally {
+			running.set(false);
+			readers.shutdown();
+			readers.awaitTermination(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	void evictsToStayWithinMaximumWeight() {
+		DataSize maxWeight = DataSize.ofKilobytes(64);
+		ProductCache cache = new ProductCache(true, maxWeight);
+		for (long id = 1; id <= 5_000; id++) {
+			cache.put(product(id, 1));
+		}
+		cache.cleanUp();
+
+		assertThat(cache.weightedSize()).isLessThanOrEqualTo(maxWeight.toBytes());
+		assertThat(cache.stats().evictionCount()).isPositive();
+	}
+
+	@Test
+	void disabledCacheAlwaysCallsLoader() {
+		ProductCache cache = new ProductCache(false, DataSize.ofMegabytes(1));
+		AtomicInteger loads = new AtomicInteger();
+		cache.put(product(1L, 5));
+		for (int i = 0; i < 3; i++) {
+			cache.get(1L, id -> {
+				loads.incrementAndGet();
+				return Optional.of(product(id, 5));
+			});
+		}
+
+		assertThat(loads.get()).isEqualTo(3);
+		assertThat(cache.isEnabled()).isFalse();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
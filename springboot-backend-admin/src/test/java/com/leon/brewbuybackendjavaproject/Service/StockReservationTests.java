@@ -0,0 +1,192 @@
+package com.leon.brewbuybackendjavaproject.Service;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.impl.InventoryServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs real transactions against H2, so every order commits or rolls back on its own
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@MockImageStorage
+@Import({OrderServiceImpl.class, OrderPricingService.class, InventoryServiceImpl.class, ProductServiceImpl.class, ProductCache.class,
+		SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationTests {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		orderRepository.deleteAll();
+		productRepository.deleteAll();
+	}
+
+	private Product product(int quantity) {
+		Product product = new Product();
+		product.setName("Stocked product");
+		product.setPrice(new BigDecimal("2.00"));
+		product.setQuantity(quantity);
+		return productRepository.save(product);
+	}
+
+	private static OrderItem item(Product product, int quantity) {
+		return new OrderItem(null, product.getId(), quantity, new BigDecimal("0.01"));
+	}
+
+	private int stock(Product product) {
+		return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+	}
+
+	@Test
+	void insufficientStockRejectsTheWholeOrder() {
+		Product plenty = product(10);
+		Product scarce = product(1);
+
+		assertThatThrownBy(() -> orderService.createOrder(1L, new ArrayList<>(List.of(item(plenty, 3), item(scarce, 2)))))
+				.isInstanceOf(InsufficientStockException.class)
+				.hasMessageContaining(String.valueOf(scarce.getId()));
+
+		assertThat(stock(plenty)).isEqualTo(10);
+		assertThat(stock(scarce)).isEqualTo(1);
+		assertThat(orderRepository.count()).isZero();
+	}
+
+	@Test
+	void cancellingOrDeletingAnUnshippedOrderGivesTheStockBack() {
+		Product product = product(10);
+		Order cancelled = orderService.createOrder(1L, new ArrayList<>(List.of(item(product, 3))));
+		Order deleted = orderService.createOrder(1L, new ArrayList<>(List.of(item(product, 2))));
+		assertThat(stock(product)).isEqualTo(5);
+
+		orderService.updateOrderStatus(cancelled.getId(), 1L, OrderStatus.CANCELLED);
+		assertThat(stock(product)).isEqualTo(8);
+		orderService.deleteOrder(cancelled.getId(), 1L);
+		assertThat(stock(product)).isEqualTo(8);
+
+		orderService.deleteOrder(deleted.getId(), 1L);
+		assertThat(stock(product)).isEqualTo(10);
+	}
+
+	@Test
+	void pricesLargeCartsFromTheCatalogWithOneQuery() {
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 250; i++) {
+			products.add(product(10));
+		}
+		List<OrderItem> items = new ArrayList<>();
+		for (Product product : products) {
+			items.add(item(product, 2));
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Order order = orderService.createOrder(1L, items);
+
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+		assertThat(order.getTotalAmount()).isEqualByComparingTo("1000.00");
+		assertThat(order.getOrderItems()).extracting(OrderItem::getPrice).containsOnly(new BigDecimal("2.00"));
+		assertThat(stock(products.get(0))).isEqualTo(8);
+	}
+
+	@Test
+	void rejectsDuplicateAndUnknownProducts() {
+		Product product = product(5);
+
+		assertThatThrownBy(() -> orderService.createOrder(1L, new ArrayList<>(List.of(item(product, 1), item(product, 1)))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Duplicate");
+		assertThatThrownBy(() -> orderService.createOrder(1L, new ArrayList<>(List.of(
+				item(product, 1), new OrderItem(null, product.getId() + 1000, 1, BigDecimal.ONE)))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("not found");
+		assertThat(stock(product)).isEqualTo(5);
+	}
+
+	@Test
+	void concurrentOrdersNeverOversell() throws Exception {
+		Product first = product(100);
+		Product second = product(100);
+		int threads = 16;
+		int ordersPerThread = 20;
+		AtomicInteger created = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < ordersPerThread; i++) {
+						// Items in either order; the reservation locks rows by id regardless
+						List<OrderItem> items = new ArrayList<>(List.of(item(first, 1), item(second, 1)));
+						Collections.shuffle(items);
+						try {
+							orderService.createOrder(1L, items);
+							created.incrementAndGet();
+						} catch (InsufficientStockException e) {
+							rejected.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(created.get()).isEqualTo(100);
+		assertThat(rejected.get()).isEqualTo(threads * ordersPerThread - 100);
+		assertThat(stock(first)).isZero();
+		assertThat(stock(second)).isZero();
+		assertThat(orderRepository.count()).isEqualTo(100);
+	}
+}
@@ -0,0 +1,62 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import com.leon.brewbuybackendjavaproject.exception.ImageTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageUploadProcessorTests {
+
+	private final ImageUploadProcessor processor = new ImageUploadProcessor();
+
+	@BeforeEach
+	void limits() {
+		ReflectionTestUtils.setField(processor, "maxSize", DataSize.ofMegabytes(10));
+		ReflectionTestUtils.setField(processor, "maxPixels", 40_000_000L);
+	}
+
+	// A PNG signature and IHDR chunk only: a few dozen bytes claiming a width x height bitmap
+	private static byte[] pngHeader(int width, int height) {
+		ByteBuffer ihdr = ByteBuffer.allocate(17);
+		ihdr.put("IHDR".getBytes(StandardCharsets.US_ASCII)).putInt(width).putInt(height)
+				.put((byte) 8).put((byte) 6).put((byte) 0).put((byte) 0).put((byte) 0);
+		CRC32 crc = new CRC32();
+		crc.update(ihdr.array());
+		return ByteBuffer.allocate(8 + 4 + 17 + 4)
+				.put(new byte[] {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A})
+				.putInt(13).put(ihdr.array()).putInt((int) crc.getValue())
+				.array();
+	}
+
+	@Test
+	void refusesAHugeBitmapFromItsHeaderAlone() {
+		assertThatThrownBy(() -> processor.stage(new ByteArrayInputStream(pngHeader(50_000, 50_000))))
+				.isInstanceOf(ImageTooLargeException.class)
+				.hasMessageContaining("50000x50000");
+	}
+
+	@Test
+	void stagesAnImageWithinTheLimit() throws Exception {
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", png);
+
+		try (StagedImage image = processor.stage(new ByteArrayInputStream(png.toByteArray()))) {
+			assertThat(image.getMimeType()).isEqualTo("image/png");
+			assertThat(image.getSize()).isEqualTo(png.size());
+			assertThat(Files.exists(image.getFile())).isTrue();
+		}
+	}
+}
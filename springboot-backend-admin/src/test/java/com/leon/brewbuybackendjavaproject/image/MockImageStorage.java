@@ -0,0 +1,15 @@
+package com.leon.brewbuybackendjavaproject.image;
+
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// For tests that load ProductServiceImpl but never touch image files
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@MockitoBean(types = {ImageStore.class, ThumbnailService.class})
+public @interface MockImageStorage {
+}
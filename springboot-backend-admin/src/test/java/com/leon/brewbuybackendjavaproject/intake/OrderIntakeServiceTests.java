@@ -0,0 +1,173 @@
+package com.leon.brewbuybackendjavaproject.intake;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderIntakeStatus;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.OrderIntakeRepository;
+import com.leon.brewbuybackendjavaproject.Repo.OrderRepository;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.OrderPricingService;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.Service.ProductServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.InventoryServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import com.leon.brewbuybackendjavaproject.stats.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"brewbuy.orders.intake.mode=async",
+		"brewbuy.orders.intake.max-wait=200ms"
+})
+@ActiveProfiles("test")
+@MockImageStorage
+@Import({OrderIntakeService.class, OrderServiceImpl.class, OrderPricingService.class, InventoryServiceImpl.class,
+		ProductServiceImpl.class, ProductCache.class, SalesRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeServiceTests {
+
+	private static final long USER = 5L;
+
+	@TempDir
+	static Path journalDir;
+
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) {
+		registry.add("brewbuy.orders.intake.journal-dir", journalDir::toString);
+	}
+
+	@Autowired
+	private OrderIntakeService orderIntakeService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderIntakeRepository orderIntakeRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	private Product product(int quantity) {
+		Product product = new Product();
+		product.setName("Queued product");
+		product.setPrice(new BigDecimal("4.00"));
+		product.setQuantity(quantity);
+		return productRepository.save(product);
+	}
+
+	private static List<OrderItem> cart(Product product, int quantity) {
+		List<OrderItem> items = new ArrayList<>();
+		items.add(new OrderItem(null, product.getId(), quantity, null));
+		return items;
+	}
+
+	private int stock(Product product) {
+		return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+	}
+
+	private OrderIntakeTicket await(OrderIntakeService service, String handle) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			OrderIntakeTicket ticket = service.getTicket(handle, USER).orElseThrow();
+			if (ticket.getStatus() != OrderIntakeStatus.QUEUED) {
+				return ticket;
+			}
+			Thread.sleep(20);
+		}
+		throw new AssertionError("Order " + handle + " was not placed");
+	}
+
+	@Test
+	void ordersOfOneBatchAreRejectedAloneWhenStockRunsOut() throws Exception {
+		Product product = product(5);
+
+		// All pass the early stock check, which does not hold anything
+		List<String> handles = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			handles.add(orderIntakeService.submit(USER, cart(product, 1)).getHandle());
+		}
+		assertThatThrownBy(() -> orderIntakeService.submit(USER, cart(product, 6)))
+				.isInstanceOf(InsufficientStockException.class);
+
+		int created = 0;
+		for (String handle : handles) {
+			OrderIntakeTicket ticket = await(orderIntakeService, handle);
+			if (ticket.getStatus() == OrderIntakeStatus.CREATED) {
+				assertThat(orderRepository.findById(ticket.getOrderId())).isPresent();
+				created++;
+			} else {
+				assertThat(ticket.getOrderId()).isNull();
+				assertThat(ticket.getMessage()).isNotBlank();
+			}
+		}
+		assertThat(created).isEqualTo(5);
+		assertThat(stock(product)).isZero();
+		assertThat(orderIntakeRepository.findExistingHandles(handles)).hasSize(6);
+
+		// Only the owner sees a ticket, and it is still there once read from the table
+		assertThat(orderIntakeService.getTicket(handles.get(0), USER + 1)).isEmpty();
+		assertThat(orderIntakeRepository.findByHandleAndUserId(handles.get(0), USER)).isPresent();
+	}
+
+	@Test
+	void journaledOrdersAreReplayedOnce() throws Exception {
+		Product product = product(10);
+
+		// A segment left behind by a crash: one order placed before it, one not, and a record cut short
+		PendingOrder placed = new PendingOrder(UUID.randomUUID().toString(), USER, LocalDateTime.now(),
+				new long[] {product.getId()}, new int[] {2});
+		PendingOrder lost = new PendingOrder(UUID.randomUUID().toString(), USER, LocalDateTime.now(),
+				new long[] {product.getId()}, new int[] {3});
+		try (OrderIntakeJournal journal = OrderIntakeJournal.create(journalDir, 1000, false)) {
+			journal.append(placed);
+			journal.append(lost);
+		}
+		Files.write(journalDir.resolve("intake-1000.journal"), new byte[] {0, 0, 0, 60, 1, 2},
+				StandardOpenOption.APPEND);
+		jdbcTemplate.update("INSERT INTO order_intakes (handle, user_id, status, submitted_at, completed_at) "
+				+ "VALUES (?, ?, 'CREATED', ?, ?)", placed.handle, USER, LocalDateTime.now(), LocalDateTime.now());
+
+		// A second instance starting on the same journal stands in for a restart
+		OrderIntakeService restarted = beanFactory.createBean(OrderIntakeService.class);
+		try {
+			assertThat(await(restarted, lost.handle).getStatus()).isEqualTo(OrderIntakeStatus.CREATED);
+		} finally {
+			restarted.stop();
+		}
+		assertThat(stock(product)).isEqualTo(7);
+
+		OrderIntakeService again = beanFactory.createBean(OrderIntakeService.class);
+		again.stop();
+		assertThat(stock(product)).isEqualTo(7);
+	}
+}
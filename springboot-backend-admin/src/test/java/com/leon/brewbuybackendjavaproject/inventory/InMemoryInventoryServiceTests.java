@@ -0,0 +1,171 @@
+package com.leon.brewbuybackendjavaproject.inventory;
+
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.InventoryService;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.event.ProductChangedEvent;
+import com.leon.brewbuybackendjavaproject.exception.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"brewbuy.inventory.mode=memory"
+})
+@ActiveProfiles("test")
+@Import({InMemoryInventoryService.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InMemoryInventoryServiceTests {
+
+	@TempDir
+	static Path journalDir;
+
+	@DynamicPropertySource
+	static void journal(DynamicPropertyRegistry registry) {
+		registry.add("brewbuy.inventory.memory.journal-dir", journalDir::toString);
+	}
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	// Saved through the repository, so the service only learns about it from the event ProductService would send
+	private Product product(int quantity) {
+		Product product = new Product();
+		product.setName("Flash sale product");
+		product.setPrice(new BigDecimal("2.00"));
+		product.setQuantity(quantity);
+		product = productRepository.save(product);
+		((InMemoryInventoryService) inventoryService).onProductChanged(ProductChangedEvent.changed(List.of(product.getId())));
+		return product;
+	}
+
+	private static List<OrderItem> order(Product product, int quantity) {
+		return List.of(new OrderItem(null, product.getId(), quantity, product.getPrice()));
+	}
+
+	private int stock(Product product) {
+		return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+	}
+
+	// A second service on a journal directory of its own, so it never replays the live segment of the
+	// context's instance; destroyBean stops its scheduled flush
+	private InMemoryInventoryService startInstance(Path dir) {
+		InMemoryInventoryService service = new InMemoryInventoryService();
+		beanFactory.autowireBean(service);
+		ReflectionTestUtils.setField(service, "journalDir", dir);
+		return (InMemoryInventoryService) beanFactory.initializeBean(service, "restartedInventoryService");
+	}
+
+	@Test
+	void concurrentReservationsNeverOversellAndFlushTheNetDelta() throws Exception {
+		Product product = product(100);
+		AtomicInteger granted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 16; t++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < 20; i++) {
+						try {
+							inventoryService.reserveStock(order(product, 1));
+							granted.incrementAndGet();
+						} catch (InsufficientStockException e) {
+							// sold out
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(granted.get()).isEqualTo(100);
+		assertThat(stock(product)).isEqualTo(100);
+		((InMemoryInventoryService) inventoryService).flush();
+		assertThat(stock(product)).isZero();
+	}
+
+	@Test
+	void reservationsLeftInTheJournalAreReplayedOnce(@TempDir Path crashedJournalDir) throws IOException {
+		Product product = product(50);
+		// The segment a crash left behind: reservations journaled but never flushed
+		try (InventoryJournal journal = InventoryJournal.create(crashedJournalDir, 1, false)) {
+			journal.append(Map.of(product.getId(), -5));
+			journal.append(Map.of(product.getId(), -10));
+		}
+
+		InMemoryInventoryService restarted = startInstance(crashedJournalDir);
+		try {
+			assertThat(stock(product)).isEqualTo(35);
+			restarted.reserveStock(order(product, 35));
+			assertThatThrownBy(() -> restarted.reserveStock(order(product, 1)))
+					.isInstanceOf(InsufficientStockException.class);
+		} finally {
+			beanFactory.destroyBean(restarted);
+		}
+
+		// The clean shutdown flushed the rest; the crashed segment must not be applied a second time
+		InMemoryInventoryService restartedAgain = startInstance(crashedJournalDir);
+		try {
+			assertThat(stock(product)).isZero();
+			assertThatThrownBy(() -> restartedAgain.reserveStock(order(product, 1)))
+					.isInstanceOf(InsufficientStockException.class);
+		} finally {
+			beanFactory.destroyBean(restartedAgain);
+		}
+	}
+
+	@Test
+	void releasedStockCanBeSoldAgainAndIsFlushed() {
+		Product product = product(10);
+		inventoryService.reserveStock(order(product, 10));
+		assertThatThrownBy(() -> inventoryService.reserveStock(order(product, 1)))
+				.isInstanceOf(InsufficientStockException.class);
+
+		// No transaction here, so the release applies at once
+		inventoryService.releaseStock(order(product, 4));
+		inventoryService.reserveStock(order(product, 4));
+		inventoryService.releaseStock(order(product, 4));
+		((InMemoryInventoryService) inventoryService).flush();
+		assertThat(stock(product)).isEqualTo(4);
+	}
+}
@@ -0,0 +1,90 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+	private static List<Long> ids(List<ProductSearchIndex.Hit> hits) {
+		return hits.stream().map(ProductSearchIndex.Hit::getProductId).collect(Collectors.toList());
+	}
+
+	private static ProductSearchIndex catalog() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1, "Ethiopian Yirgacheffe", "Light roast coffee with citrus notes");
+		index.index(2, "Colombian Supremo", "Medium roast coffee, chocolate and caramel");
+		index.index(3, "Coffee Grinder", "Burr grinder for espresso and filter coffee");
+		index.index(4, "Earl Grey Tea", "Black tea with bergamot");
+		index.index(5, "Café Crème Blend", "Smooth espresso blend");
+		return index;
+	}
+
+	@Test
+	void nameMatchesOutrankDescriptionMatches() {
+		List<Long> hits = ids(catalog().search("coffee", 10));
+		assertThat(hits).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(hits.get(0)).isEqualTo(3L);
+	}
+
+	@Test
+	void requiresEveryWordWhenSomeProductHasThemAll() {
+		assertThat(ids(catalog().search("espresso grinder", 10))).containsExactly(3L);
+		// No product has both, so any word counts
+		assertThat(ids(catalog().search("bergamot caramel", 10))).containsExactlyInAnyOrder(2L, 4L);
+	}
+
+	@Test
+	void lastWordMatchesAsPrefixAndAccentsAreIgnored() {
+		assertThat(ids(catalog().search("colom", 10))).containsExactly(2L);
+		assertThat(ids(catalog().search("cafe creme", 10))).containsExactly(5L);
+	}
+
+	@Test
+	void misspelledWordsMatchTermsOneEditAway() {
+		assertThat(ids(catalog().search("grindre", 10))).containsExactly(3L);
+		assertThat(ids(catalog().search("bergamto tea", 10))).containsExactly(4L);
+		assertThat(ids(catalog().search("zzzz", 10))).isEmpty();
+	}
+
+	@Test
+	void updatesAndRemovalsReplaceOldDocuments() {
+		ProductSearchIndex index = catalog();
+		index.index(4, "Green Tea", "Sencha");
+		assertThat(ids(index.search("earl", 10))).isEmpty();
+		assertThat(ids(index.search("sencha", 10))).containsExactly(4L);
+
+		index.remove(4);
+		assertThat(ids(index.search("tea", 10))).isEmpty();
+		assertThat(index.size()).isEqualTo(4);
+	}
+
+	@Test
+	void compactionKeepsLiveDocumentsSearchable() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		for (long id = 0; id < 3000; id++) {
+			index.index(id, "Product " + id, id % 2 == 0 ? "even" : "odd");
+		}
+		for (long id = 0; id < 3000; id += 2) {
+			index.remove(id);
+		}
+		assertThat(index.size()).isEqualTo(1500);
+		assertThat(index.search("even", 10)).isEmpty();
+		assertThat(ids(index.search("2999", 10))).containsExactly(2999L);
+		assertThat(index.search("odd", 2000)).hasSize(1500);
+	}
+
+	@Test
+	void editDistance() {
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("coffee", "coffee")).isTrue();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("cofee", "coffee")).isTrue();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("coffe", "coffee")).isTrue();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("ocffee", "coffee")).isTrue();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("coffex", "coffee")).isTrue();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("cfofex", "coffee")).isFalse();
+		assertThat(ProductSearchIndex.editDistanceAtMostOne("cof", "coffee")).isFalse();
+	}
+}
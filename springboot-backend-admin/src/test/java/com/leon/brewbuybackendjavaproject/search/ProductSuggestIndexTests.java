@@ -0,0 +1,92 @@
+package com.leon.brewbuybackendjavaproject.search;
+
+import com.leon.brewbuybackendjavaproject.dto.ProductSummary;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggestIndexTests {
+
+	private static ProductSummary product(long id, String name, int quantity) {
+		return new ProductSummary(id, name, null, BigDecimal.ONE, quantity, null, null, null);
+	}
+
+	private static List<Long> ids(List<ProductSuggestion> suggestions) {
+		return suggestions.stream().map(ProductSuggestion::getId).collect(Collectors.toList());
+	}
+
+	private static ProductSuggestIndex catalog() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.rebuild(List.of(
+				product(1, "Ethiopian Yirgacheffe", 10),
+				product(2, "Single Origin Ethiopia", 40),
+				product(3, "Espresso  Blend", 25),
+				product(4, "Café Crème", 5),
+				product(5, "Ethiopian Sidamo Ethiopian", 15)));
+		return index;
+	}
+
+	@Test
+	void matchesAnyWordStartBestStockedFirst() {
+		assertThat(ids(catalog().suggest("eth", 10))).containsExactly(2L, 5L, 1L);
+		assertThat(ids(catalog().suggest("eth", 2))).containsExactly(2L, 5L);
+		assertThat(ids(catalog().suggest("sid", 10))).containsExactly(5L);
+		assertThat(catalog().suggest("thio", 10)).isEmpty();
+	}
+
+	@Test
+	void ignoresCaseAccentsAndExtraSpaces() {
+		assertThat(ids(catalog().suggest("CAFE CR", 10))).containsExactly(4L);
+		assertThat(ids(catalog().suggest("espresso b", 10))).containsExactly(3L);
+		assertThat(catalog().suggest("   ", 10)).isEmpty();
+	}
+
+	@Test
+	void applyReplacesAndRemovesProducts() {
+		ProductSuggestIndex index = catalog();
+		index.apply(List.of(product(1, "Ethiopian Yirgacheffe", 100), product(6, "Ethiopian Guji", 1)), List.of(2L));
+		assertThat(ids(index.suggest("eth", 10))).containsExactly(1L, 5L, 6L);
+		index.apply(List.of(product(1, "Kenya AA", 100)), List.of());
+		assertThat(ids(index.suggest("eth", 10))).containsExactly(5L, 6L);
+		assertThat(ids(index.suggest("ken", 10))).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(5);
+	}
+
+	@Test
+	void incrementalUpdatesMatchAFullRebuild() {
+		Random random = new Random(42);
+		String[] words = {"alpha", "alps", "beta", "bet", "gamma", "game", "delta"};
+		List<ProductSummary> all = new ArrayList<>();
+		ProductSuggestIndex incremental = new ProductSuggestIndex();
+		for (int round = 0; round < 20; round++) {
+			List<ProductSummary> batch = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+				batch.add(product(round * 50L + i, name, random.nextInt(1000)));
+			}
+			all.addAll(batch);
+			incremental.apply(batch, List.of());
+		}
+		ProductSuggestIndex rebuilt = new ProductSuggestIndex();
+		rebuilt.rebuild(all);
+		for (String prefix : new String[] {"a", "al", "alp", "be", "game", "gamma d", "z"}) {
+			List<Integer> expected = all.stream()
+					.filter(p -> p.getName().startsWith(prefix) || p.getName().contains(" " + prefix))
+					.map(ProductSummary::getQuantity)
+					.sorted((x, y) -> y - x)
+					.limit(10)
+					.collect(Collectors.toList());
+			List<Integer> actual = incremental.suggest(prefix, 10).stream()
+					.map(ProductSuggestion::getQuantity).collect(Collectors.toList());
+			assertThat(actual).as(prefix).isEqualTo(expected);
+			assertThat(ids(rebuilt.suggest(prefix, 10))).as(prefix).isEqualTo(ids(incremental.suggest(prefix, 10)));
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.leon.brewbuybackendjavaproject.stats;
+
+import com.leon.brewbuybackendjavaproject.Model.Order;
+import com.leon.brewbuybackendjavaproject.Model.OrderItem;
+import com.leon.brewbuybackendjavaproject.Model.OrderStatus;
+import com.leon.brewbuybackendjavaproject.Model.Product;
+import com.leon.brewbuybackendjavaproject.Repo.ProductRepository;
+import com.leon.brewbuybackendjavaproject.Service.BulkOrderStatusService;
+import com.leon.brewbuybackendjavaproject.Service.OrderPricingService;
+import com.leon.brewbuybackendjavaproject.Service.ProductCache;
+import com.leon.brewbuybackendjavaproject.Service.ProductServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.InventoryServiceImpl;
+import com.leon.brewbuybackendjavaproject.Service.impl.OrderServiceImpl;
+import com.leon.brewbuybackendjavaproject.dto.request.BulkOrderStatusRequest;
+import com.leon.brewbuybackendjavaproject.dto.response.DailySalesResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.ProductSalesResponse;
+import com.leon.brewbuybackendjavaproject.dto.response.SalesStatsResponse;
+import com.leon.brewbuybackendjavaproject.image.MockImageStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"brewbuy.stats.flush-interval=PT1H"
+})
+@ActiveProfiles("test")
+@MockImageStorage
+@Import({SalesRollupService.class, SalesStatsService.class, OrderServiceImpl.class, BulkOrderStatusService.class,
+		OrderPricingService.class, InventoryServiceImpl.class, ProductServiceImpl.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesRollupServiceTests {
+
+	private static final long USER = 7L;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Autowired
+	private SalesStatsService salesStatsService;
+
+	@Autowired
+	private OrderServiceImpl orderService;
+
+	@Autowired
+	private BulkOrderStatusService bulkOrderStatusService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Product product(String name, String price) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(new BigDecimal(price));
+		product.setQuantity(100);
+		return productRepository.save(product);
+	}
+
+	private Order order(Product product, int quantity) {
+		List<OrderItem> items = new ArrayList<>();
+		items.add(new OrderItem(null, product.getId(), quantity, null));
+		return orderService.createOrder(USER, items);
+	}
+
+	private List<Map<String, Object>> rollups() {
+		return jdbcTemplate.queryForList("SELECT sales_date, status, order_count, revenue FROM order_sales_daily "
+				+ "WHERE order_count <> 0 OR revenue <> 0 ORDER BY sales_date, status");
+	}
+
+	private List<Map<String, Object>> productRollups() {
+		return jdbcTemplate.queryForList("SELECT sales_date, product_id, units, revenue FROM product_sales_daily "
+				+ "WHERE units <> 0 OR revenue <> 0 ORDER BY sales_date, product_id");
+	}
+
+	@Test
+	void incrementalRollupsMatchARebuildFromTheOrders() {
+		Product beans = product("Rollup beans", "5.00");
+		Product tea = product("Rollup tea", "2.50");
+		Order shipped = order(beans, 2);
+		Order cancelled = order(tea, 4);
+		Order bulkCancelled = order(beans, 1);
+		Order deleted = order(tea, 1);
+		order(beans, 3);
+
+		orderService.updateOrderStatus(shipped.getId(), USER, OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(shipped.getId(), USER, OrderStatus.SHIPPED);
+		orderService.updateOrderStatus(cancelled.getId(), USER, OrderStatus.CANCELLED);
+		BulkOrderStatusRequest request = new BulkOrderStatusRequest();
+		request.setOrderIds(List.of(bulkCancelled.getId(), shipped.getId()));
+		request.setStatus(OrderStatus.CANCELLED);
+		bulkOrderStatusService.apply(request);
+		orderService.deleteOrder(deleted.getId(), USER);
+
+		// Nothing reaches the tables before a flush
+		assertThat(rollups()).isEmpty();
+		salesRollupService.flush();
+
+		LocalDate today = LocalDate.now();
+		SalesStatsResponse sales = salesStatsService.getSales(today, today);
+		DailySalesResponse day = sales.getDays().get(0);
+		assertThat(day.getOrdersByStatus()).containsEntry(OrderStatus.PENDING, 1L)
+				.containsEntry(OrderStatus.SHIPPED, 1L)
+				.containsEntry(OrderStatus.CANCELLED, 2L);
+		assertThat(sales.getOrders()).isEqualTo(2);
+		assertThat(sales.getRevenue()).isEqualByComparingTo("25.00");
+		List<ProductSalesResponse> top = salesStatsService.getTopProducts(today, today, 10);
+		assertThat(top).hasSize(1);
+		assertThat(top.get(0).getName()).isEqualTo("Rollup beans");
+		assertThat(top.get(0).getUnits()).isEqualTo(5);
+
+		// The rebuild from orders and order_items lands on the same rows
+		List<Map<String, Object>> incremental = rollups();
+		List<Map<String, Object>> incrementalProducts = productRollups();
+		salesRollupService.reconcile(today, today);
+		assertThat(rollups()).isEqualTo(incremental);
+		assertThat(productRollups()).isEqualTo(incrementalProducts);
+	}
+}